@@ -0,0 +1,19 @@
+package net.runelite.client.plugins.autohonourguard;
+
+import net.runelite.client.config.Config;
+import net.runelite.client.config.ConfigGroup;
+import net.runelite.client.config.ConfigItem;
+
+@ConfigGroup("autohonourguard")
+public interface AutoHonourGuardConfig extends Config {
+
+    @ConfigItem(
+            keyName = "guardIds",
+            name = "Guard NPC ids",
+            description = "Comma separated ids of the security guard NPCs to talk to",
+            position = 1
+    )
+    default String guardIds() {
+        return "1891";
+    }
+}
@@ -1,23 +1,43 @@
 package net.runelite.client.plugins.autohonourguard;
 
 import lombok.extern.slf4j.Slf4j;
+import com.google.inject.Provides;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
+import net.runelite.api.GameState;
 import net.runelite.api.MenuAction;
 import net.runelite.api.NPC;
 import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
+import net.runelite.api.events.InteractingChanged;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.chat.ChatColorType;
 import net.runelite.client.chat.ChatMessageBuilder;
 import net.runelite.client.chat.ChatMessageManager;
 import net.runelite.client.chat.QueuedMessage;
+import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
+import net.runelite.client.plugins.PluginDependency;
 import net.runelite.client.plugins.PluginDescriptor;
+import net.runelite.client.plugins.papayautils.ActionPriority;
+import net.runelite.client.plugins.papayautils.ChatTriggers;
+import net.runelite.client.plugins.papayautils.HandlerProfiler;
+import net.runelite.client.plugins.papayautils.MenuActionDispatcher;
+import net.runelite.client.plugins.papayautils.NpcIndex;
+import net.runelite.client.plugins.papayautils.PapayaUtilsPlugin;
+import net.runelite.client.plugins.papayautils.Reachability;
+import net.runelite.client.plugins.papayautils.TickContext;
+import net.runelite.client.util.Text;
 import org.pf4j.Extension;
 
 import javax.inject.Inject;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.List;
 
 @Extension
 @PluginDescriptor(
@@ -26,68 +46,255 @@ import java.util.Comparator;
         description = "Papaya - Auto Honour Guard",
         tags = {"papaya"}
 )
+@PluginDependency(PapayaUtilsPlugin.class)
 @Slf4j
 public class AutoHonourGuardPlugin extends Plugin
 {
+    // Retry delays double from this up to the maximum while the guard stays around
+    private static final int RETRY_BASE_TICKS = 2;
+    private static final int RETRY_MAX_TICKS = 16;
+
     @Inject
     private Client client;
 
+    @Inject
+    private MenuActionDispatcher dispatcher;
+
     @Inject
     private ChatMessageManager chatMessageManager;
 
-    private int guardId = 1891;
+    @Inject
+    private ClientThread clientThread;
+
+    @Inject
+    private AutoHonourGuardConfig config;
+
+    @Inject
+    private ChatTriggers chatTriggers;
+
+    @Inject
+    private TickContext tickContext;
+
+    @Inject
+    private NpcIndex npcIndex;
+
+    @Inject
+    private Reachability reachability;
+
+    @Inject
+    private HandlerProfiler profiler;
+
+    // Swapped as a whole on config changes
+    private volatile int[] guardIds = new int[0];
+
+    // The guard that came for the player
+    private NPC target;
     private boolean guardSpawned = false;
-    private int tick = 0;
 
+    private int attempts;
+    private int nextAttemptTick;
+
+    @Provides
+    AutoHonourGuardConfig provideConfig(ConfigManager configManager) {
+        return configManager.getConfig(AutoHonourGuardConfig.class);
+    }
 
+    @Override
+    protected void startUp() {
+        guardIds = parseIds(config.guardIds());
+        chatTriggers.register(this, "A security guard has been spawned", this::onGuardSpawned,
+                ChatMessageType.GAMEMESSAGE, ChatMessageType.SPAM);
+        chatTriggers.register(this, "You have been awarded", this::onGuardDealtWith,
+                ChatMessageType.GAMEMESSAGE, ChatMessageType.SPAM);
+    }
 
-    @Subscribe
-    private void onChatMessage(ChatMessage event) {
-        if (!guardSpawned && event.getMessage().contains("A security guard has been spawned")) {
-            log.info("Guard spawn detected!");
-            guardSpawned = true;
-        }
-        if (guardSpawned && event.getMessage().contains("You have been awarded")) {
-            log.info("Guard has been dealt with!");
+    @Override
+    protected void shutDown() {
+        chatTriggers.unregister(this);
+        clientThread.invoke(() -> {
+            target = null;
             guardSpawned = false;
-        }
+        });
     }
 
+    @Subscribe
+    public void onConfigChanged(ConfigChanged event) {
+        profiler.time(AutoHonourGuardPlugin.class, "onConfigChanged", () -> {
+            if (event.getGroup().equals("autohonourguard")) {
+                guardIds = parseIds(config.guardIds());
+                clientThread.invoke(() -> {
+                    if (target != null && !isGuard(target)) {
+                        target = null;
+                    }
+                });
+            }
+        });
+    }
 
     @Subscribe
-    void handleGameTick(GameTick event) {
-        tick++;
+    public void onNpcSpawned(NpcSpawned event) {
+        profiler.time(AutoHonourGuardPlugin.class, "onNpcSpawned", () -> {
+            NPC npc = event.getNpc();
+            if (!isGuard(npc)) {
+                return;
+            }
 
-        if (!guardSpawned) {
-            if (tick >= 20) {
-                log.info("Still waiting for the guard to spawn...");
-                tick = 0;
+            if (target == null && (guardSpawned || npc.getInteracting() == tickContext.getPlayer())) {
+                engage(npc);
             }
-        } else {
+        });
+    }
 
-            if (tick >= 20) {
-                NPC guard = client.getNpcs().stream()
-                        .filter(npc -> npc.getId() == guardId)
-                        .min(Comparator.comparingInt(npc -> client.getLocalPlayer().getWorldLocation().distanceTo(npc.getWorldLocation())))
-                        .orElse(null);
+    @Subscribe
+    public void onNpcDespawned(NpcDespawned event) {
+        profiler.time(AutoHonourGuardPlugin.class, "onNpcDespawned", () -> {
+            if (event.getNpc() == target) {
+                log.info("Guard is gone.");
+                target = null;
+            }
+        });
+    }
 
+    @Subscribe
+    public void onInteractingChanged(InteractingChanged event) {
+        profiler.time(AutoHonourGuardPlugin.class, "onInteractingChanged", () -> {
+            // A guard spawned before the chat message arrived turns to the player it came for
+            if (target == null && event.getTarget() == tickContext.getPlayer()
+                    && event.getSource() instanceof NPC && isGuard((NPC) event.getSource())) {
+                engage((NPC) event.getSource());
+            }
+        });
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        profiler.time(AutoHonourGuardPlugin.class, "onGameStateChanged", () -> {
+            if (event.getGameState() == GameState.LOGIN_SCREEN || event.getGameState() == GameState.HOPPING) {
+                target = null;
+                guardSpawned = false;
+            }
+        });
+    }
+
+    private void onGuardSpawned(ChatMessage event) {
+        profiler.time(AutoHonourGuardPlugin.class, "onGuardSpawned", () -> {
+            if (!guardSpawned) {
+                log.info("Guard spawn detected!");
+                guardSpawned = true;
+            }
+
+            if (target == null) {
+                NPC guard = pickGuard();
                 if (guard != null) {
-                    log.info("Interacting with guard: {}", guard.getName());
-                    client.invokeMenuAction(
-                            "Talk-to",
-                            guard.getName(),
-                            guard.getIndex(),
-                            MenuAction.NPC_FIRST_OPTION.getId(),
-                            guard.getWorldLocation().getX(),
-                            guard.getWorldLocation().getY()
-                    );
-                } else {
-                    log.info("No guard found nearby, waiting...");
+                    engage(guard);
                 }
+            }
+        });
+    }
+
+    private void onGuardDealtWith(ChatMessage event) {
+        profiler.time(AutoHonourGuardPlugin.class, "onGuardDealtWith", () -> {
+            if (guardSpawned || target != null) {
+                log.info("Guard has been dealt with!");
+                guardSpawned = false;
+                target = null;
+            }
+        });
+    }
+
+    @Subscribe
+    void handleGameTick(GameTick event) {
+        profiler.time(AutoHonourGuardPlugin.class, "handleGameTick", () -> {
+            // Nothing to do unless a guard is waiting for an answer
+            if (target == null || client.getTickCount() < nextAttemptTick) {
+                return;
+            }
+
+            if (tickContext.getInteracting() == target) {
+                scheduleRetry();
+                return;
+            }
+
+            talkTo(target);
+        });
+    }
+
+    private void engage(NPC guard) {
+        target = guard;
+        attempts = 0;
+        talkTo(guard);
+    }
+
+    private void talkTo(NPC guard) {
+        log.info("Interacting with guard: {}", guard.getName());
+        dispatcher.submit(
+                ActionPriority.INTERACT,
+                "Talk-to",
+                guard.getName(),
+                guard.getIndex(),
+                MenuAction.NPC_FIRST_OPTION.getId(),
+                guard.getWorldLocation().getX(),
+                guard.getWorldLocation().getY()
+        );
+        scheduleRetry();
+    }
+
+    private void scheduleRetry() {
+        attempts++;
+        int delay = RETRY_BASE_TICKS << Math.min(attempts - 1, 3);
+        nextAttemptTick = client.getTickCount() + Math.min(delay, RETRY_MAX_TICKS);
+    }
+
+    /**
+     * Returns the spawned guard facing the player, else the one with the shortest walk, or null.
+     */
+    private NPC pickGuard() {
+        NPC nearest = null;
+        int nearestCost = Reachability.UNREACHABLE;
+        for (int id : guardIds) {
+            for (NPC guard : npcIndex.getNpcs(id)) {
+                if (guard.getInteracting() == tickContext.getPlayer()) {
+                    return guard;
+                }
+            }
+
+            NPC guard = npcIndex.getNearest(id);
+            if (guard == null) {
+                continue;
+            }
+
+            int cost = reachability.getInteractCost(guard);
+            if (nearest == null || cost < nearestCost) {
+                nearest = guard;
+                nearestCost = cost;
+            }
+        }
+        return nearest;
+    }
+
+    private boolean isGuard(NPC npc) {
+        int id = npc.getId();
+        for (int guardId : guardIds) {
+            if (guardId == id) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-                tick = 0;
+    private static int[] parseIds(String csv) {
+        List<String> values = Text.fromCSV(csv);
+        int[] ids = new int[values.size()];
+        int count = 0;
+        for (String id : values) {
+            try {
+                ids[count++] = Integer.parseInt(id);
+            } catch (NumberFormatException e) {
+                count--;
+                log.warn("Ignoring invalid guard id {}", id);
             }
         }
+        return Arrays.copyOf(ids, count);
     }
 
     public void sendGameMessage(String message, Object... args) {
@@ -1,21 +1,34 @@
 package net.runelite.client.plugins.autoprayer;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
-import net.runelite.api.coords.WorldPoint;
-import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.plugins.Plugin;
+import net.runelite.client.plugins.PluginDependency;
 import net.runelite.client.plugins.PluginDescriptor;
+import net.runelite.client.plugins.papayautils.ActionPlanner;
+import net.runelite.client.plugins.papayautils.ActionPriority;
+import net.runelite.client.plugins.papayautils.CompoundAction;
+import net.runelite.client.plugins.papayautils.HandlerProfiler;
+import net.runelite.client.plugins.papayautils.InventoryModel;
+import net.runelite.client.plugins.papayautils.ItemMatcher;
+import net.runelite.client.plugins.papayautils.ItemMatchers;
+import net.runelite.client.plugins.papayautils.MenuActionDispatcher;
+import net.runelite.client.plugins.papayautils.MenuIntent;
+import net.runelite.client.plugins.papayautils.PapayaUtilsPlugin;
+import net.runelite.client.plugins.papayautils.SceneObjectIndex;
+import net.runelite.client.plugins.papayautils.SceneSnapshot;
+import net.runelite.client.plugins.papayautils.ScriptRuntime;
+import net.runelite.client.plugins.papayautils.SessionMetrics;
+import net.runelite.client.plugins.papayautils.WidgetIndex;
 import org.pf4j.Extension;
 
 import javax.inject.Inject;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
 
 @Extension
 @PluginDescriptor(
@@ -24,188 +37,173 @@ import java.util.Optional;
         description = "Papaya - Auto Prayer",
         tags = {"papaya"}
 )
+@PluginDependency(PapayaUtilsPlugin.class)
 @Slf4j
 public class AutoPrayerPlugin extends Plugin {
     @Inject
     private Client client;
 
-    @Subscribe
-    public void onGameTick(GameTick event) {
-        // Check if inventory contains dragon bones
-        int boneCount = getInventoryCount("dragon bone");
-
-        if ( boneCount == 0) {
-            // If no bones are present, withdraw from the bank
-            Widget bankItemContainer = client.getWidget(WidgetInfo.BANK_ITEM_CONTAINER.getId());
-            if (bankItemContainer == null) {
-                interactWithClosestGameObject("Bank", "Use", MenuAction.GAME_OBJECT_FIRST_OPTION);
-                log.info("Opening Bank");
-                return;
-            }
+    @Inject
+    private MenuActionDispatcher dispatcher;
 
-            withdrawAllItemFromBank("dragon bone");
-            log.info("Withdrawing bones");
-            return;
-        }
+    @Inject
+    private SceneObjectIndex sceneObjectIndex;
 
-        // Find the nearest altar
-        Optional<GameObject> nearestAltar = getNearbyGameObjects().stream()
-                .filter(obj -> obj.getName() != null && obj.getName().toLowerCase().contains("altar"))
-                .min(Comparator.comparingInt(obj -> {
-                    WorldPoint playerLocation = client.getLocalPlayer().getWorldLocation();
-                    return playerLocation.distanceTo(obj.getWorldLocation());
-                }));
+    @Inject
+    private ActionPlanner planner;
 
-        if (nearestAltar.isEmpty()) {
-            log.info("No altar nearby to use bones.");
-            return;
-        }
+    @Inject
+    private ItemMatchers itemMatchers;
 
-        // Use the first dragon bone on the altar
-        GameObject altar = nearestAltar.get();
-        ItemContainer inventory = client.getItemContainer(InventoryID.INVENTORY);
-        if (inventory != null) {
-            Item[] items = inventory.getItems();
-            for (int i = 0; i < items.length; i++) {
-                Item item = items[i];
-                if (item != null) {
-
-                    String itemName = client.getItemDefinition(item.getId()).getName();
-                    if (itemName.toLowerCase().contains("dragon bone")) {
-                        // Use the item in the inventory
-                        client.invokeMenuAction(
-                                "Use",
-                                itemName,
-                                0, // 'Id' as 0 per your logs
-                                MenuAction.WIDGET_TARGET.getId(),
-                                i, // Index of the item in the inventory
-                                WidgetInfo.INVENTORY.getId()
-                        );
-
-                        // Use the item on the altar
-                        client.invokeMenuAction(
-                                "Use",
-                                itemName,
-                                411, // 'Id' for the game object interaction
-                                MenuAction.WIDGET_TARGET_ON_GAME_OBJECT.getId(),
-                                altar.getSceneMinLocation().getX(), // Param 0
-                                altar.getSceneMinLocation().getY()  // Param 1
-                        );
-                        return;
-                    }
-                }
-            }
+    @Inject
+    private InventoryModel inventory;
 
-        }
-    }
+    @Inject
+    private WidgetIndex widgetIndex;
 
+    @Inject
+    private ScriptRuntime scripts;
 
+    @Inject
+    private SessionMetrics metrics;
 
+    @Inject
+    private HandlerProfiler profiler;
 
-    private int getInventoryCount(String itemName) {
-        ItemContainer inventory = client.getItemContainer(InventoryID.INVENTORY);
-        if (inventory == null) {
-            log.warn("Inventory is not accessible.");
-            return -1;
-        }
+    private static final int WALK_TIMEOUT = 10;
+    private static final int RETRY_TICKS = 3;
 
-        Item[] items = inventory.getItems();
-        int count = 0;
-        for (Item item : items) {
-            if (item != null) {
-                String itemInInventoryName = client.getItemDefinition(item.getId()).getName();
-                if (itemInInventoryName.toLowerCase().contains(itemName.toLowerCase())) {
-                    count += item.getQuantity();
-                }
-            }
-        }
-        return count;
-    }
+    private ItemMatcher dragonBones;
+    private Disposable script;
 
-    private List<GameObject> getNearbyGameObjects() {
-        List<GameObject> gameObjects = new ArrayList<>();
-        Scene scene = client.getScene();
-        if (scene == null) {
-            log.error("Scene is null. Cannot retrieve game objects.");
-            return gameObjects;
-        }
+    private SessionMetrics.Counter bonesOffered;
+    private int boneCount;
+
+    @Override
+    protected void startUp() {
+        dragonBones = itemMatchers.nameContains("dragon bone");
+        bonesOffered = metrics.counter("autoprayer", "bones_offered", "Bones offered");
+        boneCount = inventory.getCount(dragonBones);
+        script = scripts.run("AutoPrayer", Completable.defer(this::nextStep).repeat());
+    }
 
-        Tile[][][] tiles = scene.getTiles();
-        if (tiles == null) {
-            log.error("Tiles are null. Cannot retrieve game objects.");
-            return gameObjects;
+    @Override
+    protected void shutDown() {
+        if (script != null) {
+            script.dispose();
+            script = null;
         }
+    }
 
-        int plane = client.getPlane();
-        for (int x = 0; x < tiles[plane].length; x++) {
-            for (int y = 0; y < tiles[plane][x].length; y++) {
-                Tile tile = tiles[plane][x][y];
-                if (tile == null) continue;
-
-                GameObject[] objects = tile.getGameObjects();
-                if (objects != null) {
-                    for (GameObject object : objects) {
-                        if (object != null) {
-                            gameObjects.add(object);
-                        }
-                    }
+    // After the inventory model, so the count includes this change
+    @Subscribe(priority = -1)
+    public void onItemContainerChanged(ItemContainerChanged event) {
+        profiler.time(AutoPrayerPlugin.class, "onItemContainerChanged", () -> {
+            if (event.getContainerId() == InventoryID.INVENTORY.getId()) {
+                // Bones only leave the inventory on the altar, the bank only adds them
+                int bones = inventory.getCount(dragonBones);
+                if (bones < boneCount) {
+                    bonesOffered.add(boneCount - bones);
                 }
+                boneCount = bones;
             }
+        });
+    }
+
+    private Completable nextStep() {
+        if (inventory.getCount(dragonBones) == 0) {
+            // If no bones are present, withdraw them from the bank as soon as it is built
+            return Completable.concatArray(
+                    scripts.open(WidgetInfo.BANK_ITEM_CONTAINER,
+                            () -> interactWithClosestGameObject("Bank", "Use", MenuAction.GAME_OBJECT_FIRST_OPTION), WALK_TIMEOUT),
+                    scripts.perform(ActionPriority.INTERFACE, CompoundAction.create()
+                            .then(() -> withdrawAll(dragonBones), () -> inventory.getCount(dragonBones) > 0), RETRY_TICKS));
         }
 
-        return gameObjects;
+        // Find the nearest altar off the client thread, then use the first dragon bone on it
+        return scripts.attempt(
+                () -> planner.submit("AutoPrayer.altar", () -> sceneObjectIndex.snapshot("altar"), SceneSnapshot::nearest, this::useBonesOn),
+                scripts.inventoryChanged(), WALK_TIMEOUT);
     }
 
-    private boolean interactWithClosestGameObject(String objectName, String actionName, MenuAction menuAction) {
-        Optional<GameObject> optionalGameObject = getNearbyGameObjects().stream()
-                .filter(obj -> obj.getName().toLowerCase().contains(objectName.toLowerCase()))
-                .min(Comparator.comparingInt(obj -> {
-                    WorldPoint playerLocation = client.getLocalPlayer().getWorldLocation();
-                    return playerLocation.distanceTo(obj.getWorldLocation());
-                }));
-
-        if (optionalGameObject.isEmpty()) {
-            log.info("GameObject with name {} not found.", objectName);
-            return false;
+    private void useBonesOn(SceneSnapshot.Target altar) {
+        if (altar == null) {
+            log.info("No altar nearby to use bones.");
+            return;
         }
 
-        GameObject object = optionalGameObject.get();
-
-        client.invokeMenuAction(
-                actionName,
-                object.getName(),
-                object.getId(),
-                menuAction.getId(),
-                object.getSceneMinLocation().getX(),
-                object.getSceneMinLocation().getY()
+        int slot = inventory.getFirstSlot(dragonBones);
+        if (slot == -1) {
+            return;
+        }
+        String itemName = client.getItemDefinition(inventory.getItemId(slot)).getName();
+
+        dispatcher.submit(ActionPriority.INTERACT,
+                // Use the item in the inventory
+                MenuIntent.of(
+                        "Use",
+                        itemName,
+                        0, // 'Id' as 0 per your logs
+                        MenuAction.WIDGET_TARGET.getId(),
+                        slot, // Index of the item in the inventory
+                        WidgetInfo.INVENTORY.getId()
+                ),
+                // Use the item on the altar
+                MenuIntent.of(
+                        "Use",
+                        itemName,
+                        411, // 'Id' for the game object interaction
+                        MenuAction.WIDGET_TARGET_ON_GAME_OBJECT.getId(),
+                        altar.getMinX(), // Param 0
+                        altar.getMinY()  // Param 1
+                )
         );
-        log.info("Interacting with GameObject '{}' using action '{}'", objectName, actionName);
-        return true;
+    }
+
+    private boolean interactWithClosestGameObject(String objectName, String actionName, MenuAction menuAction) {
+        return planner.submit("AutoPrayer." + objectName, () -> sceneObjectIndex.snapshot(objectName), SceneSnapshot::nearest, object -> {
+            if (object == null) {
+                log.info("GameObject with name {} not found.", objectName);
+                return;
+            }
 
+            dispatcher.submit(
+                    ActionPriority.INTERACT,
+                    actionName,
+                    object.getName(),
+                    object.getId(),
+                    menuAction.getId(),
+                    object.getMinX(),
+                    object.getMinY()
+            );
+            log.info("Interacting with GameObject '{}' using action '{}'", objectName, actionName);
+        });
     }
 
-    private void withdrawAllItemFromBank(String itemName) {
+    /**
+     * Returns the action withdrawing all of the first item accepted by the matcher, or null while it is not in the bank interface.
+     */
+    private MenuIntent withdrawAll(ItemMatcher matcher) {
         Widget bankItemContainer = client.getWidget(WidgetInfo.BANK_ITEM_CONTAINER.getId());
-        if (bankItemContainer == null || bankItemContainer.getDynamicChildren() == null) {
-            log.error("Bank is not open or item container is inaccessible.");
-            return;
+        if (bankItemContainer == null) {
+            log.debug("Bank is not open or item container is inaccessible.");
+            return null;
         }
-        Widget[] items = bankItemContainer.getDynamicChildren();
-
-        for (int i = 0; i < items.length; i++) {
-            if (items[i] != null && items[i].getName().toLowerCase().contains(itemName.toLowerCase())) {
-                client.invokeMenuAction(
-                        "Withdraw-All",
-                        items[i].getName(),
-                        1,
-                        MenuAction.CC_OP.getId(),
-                        i,
-                        bankItemContainer.getId()
-                );
-                log.info("Withdrew all of '{}'", itemName);
-                return;
-            }
+
+        Widget item = widgetIndex.findItem(WidgetInfo.BANK_ITEM_CONTAINER, matcher);
+        if (item == null) {
+            log.debug("Item not found in bank");
+            return null;
         }
-        log.info("Item {} not found", itemName);
+
+        log.info("Withdrawing all of '{}'", item.getName());
+        return MenuIntent.of(
+                "Withdraw-All",
+                item.getName(),
+                1,
+                MenuAction.CC_OP.getId(),
+                item.getIndex(),
+                bankItemContainer.getId()
+        );
     }
 }
@@ -4,14 +4,33 @@ import com.google.inject.Provides;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
 import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.StatChanged;
+import net.runelite.api.events.VarbitChanged;
 import net.runelite.api.widgets.WidgetInfo;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.game.ItemStats;
 import net.runelite.client.plugins.Plugin;
+import net.runelite.client.plugins.PluginDependency;
 import net.runelite.client.plugins.PluginDescriptor;
+import net.runelite.client.plugins.papayautils.ActionPriority;
+import net.runelite.client.plugins.papayautils.HandlerProfiler;
+import net.runelite.client.plugins.papayautils.IntIntMap;
+import net.runelite.client.plugins.papayautils.InventoryModel;
+import net.runelite.client.plugins.papayautils.ItemMatcher;
+import net.runelite.client.plugins.papayautils.ItemMatchers;
+import net.runelite.client.plugins.papayautils.MenuActionDispatcher;
+import net.runelite.client.plugins.papayautils.PapayaUtilsPlugin;
+import net.runelite.client.plugins.papayautils.PrayerDrain;
+import net.runelite.client.plugins.papayautils.SessionMetrics;
+import net.runelite.client.plugins.papayautils.TickContext;
 import org.pf4j.Extension;
 
 import javax.inject.Inject;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Extension
 @PluginDescriptor(
@@ -20,80 +39,310 @@ import javax.inject.Inject;
         description = "Automatically drinks prayer potions or restore potions when prayer points drop below a configurable threshold",
         tags = {"prayer", "automation", "potion", "111", "papaya"}
 )
+@PluginDependency(PapayaUtilsPlugin.class)
 @Slf4j
 
 public class AutoPrayerPotPlugin extends Plugin {
+    // A sip shows in the stats on the tick after it is sent
+    private static final int SIP_LEAD_TICKS = 1;
+    private static final int SIP_RETRY_TICKS = 3;
+
+    // Potions are cached as type ordinal * DOSE_RANGE + doses, items that restore no prayer as NOT_A_RESTORE
+    private static final int DOSE_RANGE = 16;
+    private static final int NOT_A_RESTORE = -1;
+    private static final int UNKNOWN = -2;
+
     @Inject
     private Client client;
 
+    @Inject
+    private MenuActionDispatcher dispatcher;
+
     @Inject
     private AutoPrayerPotConfig config;
 
     @Inject
     private ConfigManager configManager;
 
+    @Inject
+    private ItemMatchers itemMatchers;
+
+    @Inject
+    private InventoryModel inventory;
+
+    @Inject
+    private ItemManager itemManager;
+
+    @Inject
+    private TickContext tickContext;
+
+    @Inject
+    private SessionMetrics metrics;
+
+    @Inject
+    private HandlerProfiler profiler;
+
+    private ItemMatcher prayerRestores;
+
+    // Potion type and doses by item id, resolved from the name the first time an id is seen
+    private final IntIntMap potions = new IntIntMap();
+
+    // Swapped as a whole on config and prayer level changes, the tick only reads its fields
+    private final AtomicReference<AutoPrayerPotSettings> settings = new AtomicReference<>();
+
+    // Set when prayer points, active prayers, equipment or potions changed since the sip was scheduled
+    private boolean stale = true;
+    private boolean equipmentChanged = true;
+    private int prayerBonus;
+
+    // Tick on which the next sip is due, Integer.MAX_VALUE while prayer is not draining
+    private int sipTick = Integer.MAX_VALUE;
+
+    private SessionMetrics.Counter dosesDrunk;
+
+    // Doses in the inventory as of the last change, -1 until the first one
+    private int doseCount = -1;
+
     @Provides
     AutoPrayerPotConfig provideConfig(ConfigManager configManager)
     {
         return configManager.getConfig(AutoPrayerPotConfig.class);
     }
 
+    @Override
+    protected void startUp() {
+        prayerRestores = itemMatchers.nameContains("prayer potion", "super restore", "sanfew");
+        settings.set(AutoPrayerPotSettings.of(config, client.getRealSkillLevel(Skill.PRAYER)));
+        stale = true;
+        equipmentChanged = true;
+        dosesDrunk = metrics.counter("autoprayerpot", "doses_drunk", "Potion doses drunk");
+        doseCount = -1;
+    }
+
+    @Subscribe
+    public void onConfigChanged(ConfigChanged event) {
+        profiler.time(AutoPrayerPotPlugin.class, "onConfigChanged", () -> {
+            if (event.getGroup().equals("autoprayerpot")) {
+                settings.set(AutoPrayerPotSettings.of(config, client.getRealSkillLevel(Skill.PRAYER)));
+                stale = true;
+            }
+        });
+    }
+
+    @Subscribe
+    public void onStatChanged(StatChanged event) {
+        profiler.time(AutoPrayerPotPlugin.class, "onStatChanged", () -> {
+            if (event.getSkill() == Skill.PRAYER) {
+                stale = true;
+            }
+        });
+    }
+
+    @Subscribe
+    public void onVarbitChanged(VarbitChanged event) {
+        profiler.time(AutoPrayerPotPlugin.class, "onVarbitChanged", () -> {
+            // Prayers are toggled through varbits
+            stale = true;
+        });
+    }
+
+    // After the inventory model, so the dose count includes this change
+    @Subscribe(priority = -1)
+    public void onItemContainerChanged(ItemContainerChanged event) {
+        profiler.time(AutoPrayerPotPlugin.class, "onItemContainerChanged", () -> {
+            if (event.getContainerId() == InventoryID.EQUIPMENT.getId()) {
+                equipmentChanged = true;
+                stale = true;
+            } else if (event.getContainerId() == InventoryID.INVENTORY.getId()) {
+                stale = true;
+
+                int doses = countDoses();
+                if (doseCount != -1 && doses < doseCount) {
+                    dosesDrunk.add(doseCount - doses);
+                }
+                doseCount = doses;
+            }
+        });
+    }
+
     @Subscribe
     public void onGameTick(GameTick event) {
+        profiler.time(AutoPrayerPotPlugin.class, "onGameTick", () -> {
+            int tick = tickContext.getTick();
+            if (!stale && tick < sipTick) {
+                return;
+            }
+
+            if (stale) {
+                stale = false;
+                schedule(tick);
+            }
+
+            if (tick >= sipTick) {
+                drinkPrayerPotion(tick);
+            }
+        });
+    }
+
+    /**
+     * Predicts the tick on which prayer reaches the threshold and schedules the sip just before it.
+     */
+    private void schedule(int tick) {
         // Get current prayer points
-        int currentPrayer = client.getBoostedSkillLevel(Skill.PRAYER);
-        int maxPrayer = client.getRealSkillLevel(Skill.PRAYER);
+        int currentPrayer = tickContext.getBoostedLevel(Skill.PRAYER);
+        int maxPrayer = tickContext.getRealLevel(Skill.PRAYER);
 
         if (maxPrayer == 0) {
             log.warn("Max prayer level is 0. This should not happen.");
+            sipTick = Integer.MAX_VALUE;
             return;
         }
 
-        double prayerPercent = (double) currentPrayer / maxPrayer;
+        AutoPrayerPotSettings current = settings.get();
+        if (current.getMaxPrayer() != maxPrayer) {
+            // If this loses to a config change, that snapshot was built with the new level already
+            AutoPrayerPotSettings updated = current.withMaxPrayer(maxPrayer);
+            settings.compareAndSet(current, updated);
+            current = updated;
+        }
 
-        // Get threshold from config
-        double prayerThreshold = Math.max(1, Math.min(config.prayerThreshold(), 100)) / 100.0;
+        if (equipmentChanged) {
+            equipmentChanged = false;
+            prayerBonus = getPrayerBonus();
+        }
 
-        // Check if prayer points are below threshold
-        if (prayerPercent <= prayerThreshold) {
-            log.info("Prayer points below threshold: {}%. Attempting to drink prayer potion.", (int) (prayerPercent * 100));
-            drinkPrayerPotion();
+        int pointsAboveThreshold = currentPrayer - current.getDrinkAtPoints();
+        if (pointsAboveThreshold <= 0) {
+            sipTick = tick;
+            return;
         }
+
+        int ticks = PrayerDrain.getTicksToDrain(pointsAboveThreshold, PrayerDrain.getDrainEffect(client), prayerBonus);
+        sipTick = ticks == Integer.MAX_VALUE ? Integer.MAX_VALUE : tick + Math.max(0, ticks - SIP_LEAD_TICKS);
     }
 
-    private void drinkPrayerPotion() {
-        ItemContainer inventory = client.getItemContainer(InventoryID.INVENTORY);
-        if (inventory == null) {
-            log.warn("Inventory is not accessible.");
+    private void drinkPrayerPotion(int tick) {
+        int currentPrayer = tickContext.getBoostedLevel(Skill.PRAYER);
+        int maxPrayer = tickContext.getRealLevel(Skill.PRAYER);
+
+        // Check for prayer potion or restore potion
+        int slot = choosePotion(currentPrayer, maxPrayer);
+        if (slot == -1) {
+            log.warn("No prayer or restore potion found in inventory.");
+            // Rescheduled when the inventory changes
+            sipTick = Integer.MAX_VALUE;
             return;
         }
 
-        Item[] items = inventory.getItems();
-        for (int i = 0; i < items.length; i++) {
-            Item item = items[i];
-            if (item != null) {
-                String itemName = client.getItemDefinition(item.getId()).getName().toLowerCase();
-
-                // Check for prayer potion or restore potion
-                if (itemName.contains("prayer potion") || itemName.contains("super restore") || itemName.contains("sanfew")) {
-                    log.info("Found {} in inventory. Drinking...", itemName);
-
-                    // Simulate drinking the potion
-                    client.invokeMenuAction(
-                            "Drink",
-                            itemName,
-                            2,
-                            MenuAction.CC_OP.getId(),
-                            i, // Item index in inventory
-                            WidgetInfo.INVENTORY.getId()
-                    );
-
-                    log.info("Drank {}.", itemName);
-                    return;
-                }
+        String itemName = client.getItemDefinition(inventory.getItemId(slot)).getName().toLowerCase();
+        log.info("Prayer points at {} of {}. Drinking {}...", currentPrayer, maxPrayer, itemName);
+
+        // Simulate drinking the potion
+        dispatcher.submit(
+                ActionPriority.POTION,
+                "Drink",
+                itemName,
+                2,
+                MenuAction.CC_OP.getId(),
+                slot, // Item index in inventory
+                WidgetInfo.INVENTORY.getId()
+        );
+
+        // The restore reschedules through StatChanged, retry if it never shows
+        sipTick = tick + SIP_RETRY_TICKS;
+    }
+
+    /**
+     * Picks the restore that fills the most missing points without going over the maximum, or
+     * the one that goes over the least. Of equal potions the one with the fewest doses left is
+     * drunk first, so partly used potions are emptied before full ones are opened.
+     */
+    private int choosePotion(int currentPrayer, int maxPrayer) {
+        int missing = maxPrayer - currentPrayer;
+        int best = -1;
+        int bestRestore = 0;
+        int bestDoses = 0;
+
+        int slots = inventory.getSlots(prayerRestores);
+        while (slots != 0) {
+            int slot = Integer.numberOfTrailingZeros(slots);
+            slots &= slots - 1;
+
+            int potion = getPotion(inventory.getItemId(slot));
+            if (potion == NOT_A_RESTORE) {
+                continue;
             }
+
+            int restore = PrayerRestore.values()[potion / DOSE_RANGE].getRestore(maxPrayer);
+            int doses = potion % DOSE_RANGE;
+            if (best == -1 || isBetter(restore, doses, bestRestore, bestDoses, missing)) {
+                best = slot;
+                bestRestore = restore;
+                bestDoses = doses;
+            }
+        }
+        return best;
+    }
+
+    private int countDoses() {
+        int doses = 0;
+        int slots = inventory.getSlots(prayerRestores);
+        while (slots != 0) {
+            int slot = Integer.numberOfTrailingZeros(slots);
+            slots &= slots - 1;
+            int potion = getPotion(inventory.getItemId(slot));
+            if (potion != NOT_A_RESTORE) {
+                doses += potion % DOSE_RANGE;
+            }
+        }
+        return doses;
+    }
+
+    /**
+     * Returns the cached potion type and doses of the item, see {@link #DOSE_RANGE}.
+     */
+    private int getPotion(int itemId) {
+        int potion = potions.get(itemId, UNKNOWN);
+        if (potion == UNKNOWN) {
+            String name = client.getItemDefinition(itemId).getName().toLowerCase();
+            PrayerRestore type = PrayerRestore.of(name);
+            potion = type == null
+                    ? NOT_A_RESTORE
+                    : type.ordinal() * DOSE_RANGE + Math.min(PrayerRestore.getDoses(name), DOSE_RANGE - 1);
+            potions.put(itemId, potion);
+        }
+        return potion;
+    }
+
+    private static boolean isBetter(int restore, int doses, int bestRestore, int bestDoses, int missing) {
+        boolean fits = restore <= missing;
+        boolean bestFits = bestRestore <= missing;
+        if (fits != bestFits) {
+            return fits;
+        }
+        if (restore != bestRestore) {
+            return fits ? restore > bestRestore : restore < bestRestore;
+        }
+        return doses < bestDoses;
+    }
+
+    private int getPrayerBonus() {
+        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
+        if (equipment == null) {
+            return 0;
         }
 
-        log.warn("No prayer or restore potion found in inventory.");
+        int bonus = 0;
+        for (Item item : equipment.getItems()) {
+            if (item.getId() < 0) {
+                continue;
+            }
+
+            ItemStats stats = itemManager.getItemStats(item.getId(), false);
+            if (stats != null && stats.getEquipment() != null) {
+                bonus += stats.getEquipment().getPrayer();
+            }
+        }
+        return bonus;
     }
 }
@@ -0,0 +1,25 @@
+package net.runelite.client.plugins.autoprayerpot;
+
+import lombok.Value;
+
+/**
+ * Immutable snapshot of {@link AutoPrayerPotConfig}, with the threshold resolved to prayer points
+ * for the player's prayer level. Replaced as a whole when the config or the level changes.
+ */
+@Value
+class AutoPrayerPotSettings {
+    int thresholdPercent;
+    int maxPrayer;
+
+    // Drink when the boosted prayer level is at or below this
+    int drinkAtPoints;
+
+    static AutoPrayerPotSettings of(AutoPrayerPotConfig config, int maxPrayer) {
+        int percent = Math.max(1, Math.min(config.prayerThreshold(), 100));
+        return new AutoPrayerPotSettings(percent, maxPrayer, percent * maxPrayer / 100);
+    }
+
+    AutoPrayerPotSettings withMaxPrayer(int maxPrayer) {
+        return new AutoPrayerPotSettings(thresholdPercent, maxPrayer, thresholdPercent * maxPrayer / 100);
+    }
+}
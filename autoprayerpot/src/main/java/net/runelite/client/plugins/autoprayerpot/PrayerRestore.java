@@ -0,0 +1,48 @@
+package net.runelite.client.plugins.autoprayerpot;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Potions that restore prayer points, with the points one dose restores at a prayer level.
+ */
+@AllArgsConstructor
+enum PrayerRestore {
+    PRAYER_POTION("prayer potion", 7),
+    SUPER_RESTORE("super restore", 8),
+    SANFEW_SERUM("sanfew", 8);
+
+    private final String nameFragment;
+    private final int baseRestore;
+
+    int getRestore(int prayerLevel) {
+        return baseRestore + prayerLevel / 4;
+    }
+
+    /**
+     * Returns the potion type of a lower case item name, or null.
+     */
+    static PrayerRestore of(String name) {
+        for (PrayerRestore restore : values()) {
+            if (name.contains(restore.nameFragment)) {
+                return restore;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the dose count from names such as "Prayer potion(3)", 1 when there is none.
+     */
+    static int getDoses(String name) {
+        int open = name.lastIndexOf('(');
+        if (open == -1 || !name.endsWith(")")) {
+            return 1;
+        }
+
+        try {
+            return Integer.parseInt(name.substring(open + 1, name.length() - 1));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+}
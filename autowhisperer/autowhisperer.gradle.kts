@@ -28,6 +28,10 @@ version = "1.0.0"
 project.extra["PluginName"] = "Auto Whisperer"
 project.extra["PluginDescription"] = "Papaya - Auto Whisperer"
 
+dependencies {
+    compileOnly(project(":papayautils"))
+}
+
 tasks {
     jar {
         manifest {
@@ -35,6 +39,7 @@ tasks {
                 "Plugin-Version" to project.version,
                 "Plugin-Id" to nameToId(project.extra["PluginName"] as String),
                 "Plugin-Provider" to project.extra["PluginProvider"],
+                "Plugin-Dependencies" to arrayOf(nameToId("Papaya Utils")).joinToString(),
                 "Plugin-Description" to project.extra["PluginDescription"],
                 "Plugin-License" to project.extra["PluginLicense"]
             ))
@@ -1,13 +1,29 @@
 package net.runelite.client.plugins.autowhisperer;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
 import net.runelite.api.events.*;
-import net.runelite.api.widgets.Widget;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.plugins.Plugin;
+import net.runelite.client.plugins.PluginDependency;
 import net.runelite.client.plugins.PluginDescriptor;
+import net.runelite.client.plugins.papayautils.ActionPriority;
+import net.runelite.client.plugins.papayautils.CheckpointStore;
+import net.runelite.client.plugins.papayautils.HandlerProfiler;
+import net.runelite.client.plugins.papayautils.InventoryModel;
+import net.runelite.client.plugins.papayautils.ItemMatcher;
+import net.runelite.client.plugins.papayautils.ItemMatchers;
+import net.runelite.client.plugins.papayautils.MenuActionDispatcher;
+import net.runelite.client.plugins.papayautils.NpcIndex;
+import net.runelite.client.plugins.papayautils.PapayaUtilsPlugin;
+import net.runelite.client.plugins.papayautils.ProjectilePrayerEngine;
+import net.runelite.client.plugins.papayautils.Reachability;
+import net.runelite.client.plugins.papayautils.ScriptRuntime;
+import net.runelite.client.plugins.papayautils.SessionMetrics;
+import net.runelite.client.plugins.papayautils.TickContext;
 
 import org.pf4j.Extension;
 
@@ -21,188 +37,309 @@ import java.util.*;
         description = "Papaya - Auto Whisperer",
         tags = {"papaya"}
 )
+@PluginDependency(PapayaUtilsPlugin.class)
 @Slf4j
 public class AutoWhispererPlugin extends Plugin {
 
     @Inject
     private Client client;
 
+    @Inject
+    private MenuActionDispatcher dispatcher;
+
     @Inject
     private ClientThread clientThread;
 
-    private final List<TileItem> loot = new ArrayList<>();
-    private final Set<String> lootBlacklist = Set.of("manta ray", "super combat", "super attack", "bone");
+    @Inject
+    private ItemMatchers itemMatchers;
+
+    @Inject
+    private NpcIndex npcIndex;
+
+    @Inject
+    private InventoryModel inventory;
+
+    @Inject
+    private ProjectilePrayerEngine projectilePrayerEngine;
+
+    @Inject
+    private Reachability reachability;
+
+    @Inject
+    private TickContext tickContext;
+
+    @Inject
+    private ScriptRuntime scripts;
+
+    @Inject
+    private SessionMetrics metrics;
+
+    @Inject
+    private CheckpointStore checkpoints;
+
+    @Inject
+    private HandlerProfiler profiler;
 
-    private final Map<Integer, Prayer> PRAYER_MAP = Map.of(
-            2445, Prayer.PROTECT_FROM_MAGIC,
-            2444, Prayer.PROTECT_FROM_MISSILES
-    );
+    private final LootTracker loot = new LootTracker(MAX_LOOT);
+    private ItemMatcher lootBlacklist;
 
     private static final int HOME_REGION = 12342;
-    private boolean pendingLootClear = false;
+    private static final String CHECKPOINT = "autowhisperer";
+    private static final String WHISPERER = "whisperer";
+    private static final int MAX_LOOT = 64;
     private static final int LOOT_CLEAR_DELAY = 10;
-    private int timeout = 0;
-    private boolean waitingForLoot = false;
-    private boolean teleportInProgress = false;
+    private static final int ATTACK_TIMEOUT = 3;
+    private static final int LOOT_SPAWN_TIMEOUT = 4;
+    private static final int LOOT_TIMEOUT = 5;
+    private static final int TRAVEL_TIMEOUT = 10;
+    private static final int HOME_TELEPORT_TIMEOUT = 20;
+    private Disposable script;
+
+    // Set from the home teleport until the player is home, checkpointed so a restart finishes the trip home
+    private volatile boolean returningHome;
+
+    private SessionMetrics.Counter kills;
+    private SessionMetrics.Counter lootPickedUp;
+    private SessionMetrics.Counter teleports;
+    private SessionMetrics.Counter deaths;
+
+    // The ground item last clicked and how many of it the inventory held then, a pickup shows as a gain
+    private TileItem taking;
+    private int takingCount;
+
+    @Override
+    protected void startUp() {
+        lootBlacklist = itemMatchers.nameContains("manta ray", "super combat", "super attack", "bone");
+        kills = metrics.counter("autowhisperer", "kills", "Kills");
+        lootPickedUp = metrics.counter("autowhisperer", "loot_picked_up", "Loot picked up");
+        teleports = metrics.counter("autowhisperer", "teleports", "Teleports");
+        deaths = metrics.counter("autowhisperer", "deaths", "Deaths");
+        projectilePrayerEngine.setProfile("whisperer");
+
+        Properties checkpoint = checkpoints.restore(CHECKPOINT);
+        returningHome = Boolean.parseBoolean(checkpoint.getProperty("returningHome"));
+        checkpoints.track(CHECKPOINT, this::checkpointState);
+
+        clientThread.invoke(this::rebuildLoot);
+        startScript(0);
+    }
+
+    @Override
+    protected void shutDown() {
+        stopScript();
+        checkpoints.untrack(CHECKPOINT);
+        projectilePrayerEngine.setProfile(null);
+    }
 
+    private Properties checkpointState() {
+        Properties state = new Properties();
+        state.setProperty("returningHome", Boolean.toString(returningHome));
+        return state;
+    }
+
+    /**
+     * Tracks the loot already on the ground, which spawned before the plugin was started and so
+     * is not announced again unless the scene is reloaded.
+     */
+    private void rebuildLoot() {
+        Scene scene = client.getScene();
+        if (client.getGameState() != GameState.LOGGED_IN || scene == null || scene.getTiles() == null
+                || getCurrentRegion() == HOME_REGION) {
+            return;
+        }
+
+        for (Tile[][] plane : scene.getTiles()) {
+            for (Tile[] column : plane) {
+                for (Tile tile : column) {
+                    if (tile == null || tile.getGroundItems() == null) {
+                        continue;
+                    }
+
+                    for (TileItem item : tile.getGroundItems()) {
+                        if (!isItemBlacklisted(item)) {
+                            loot.add(item, tile);
+                        }
+                    }
+                }
+            }
+        }
+        log.debug("Tracking {} loot items already on the ground", loot.size());
+    }
 
     @Subscribe
     private void onItemSpawned(ItemSpawned event) {
-        int currentRegion = getCurrentRegion();
-        if (currentRegion != HOME_REGION) {
-            if (!isItemBlacklisted(event.getItem())) {
-                loot.add(event.getItem());
+        profiler.time(AutoWhispererPlugin.class, "onItemSpawned", () -> {
+            int currentRegion = getCurrentRegion();
+            if (currentRegion != HOME_REGION) {
+                if (!isItemBlacklisted(event.getItem())) {
+                    loot.add(event.getItem(), event.getTile());
+                }
             }
-        }
+        });
     }
 
     @Subscribe
     private void onItemDespawned(ItemDespawned event) {
-        int currentRegion = getCurrentRegion();
-        if (currentRegion != HOME_REGION) {
+        profiler.time(AutoWhispererPlugin.class, "onItemDespawned", () -> {
             loot.remove(event.getItem());
-        }
-    }
-
-    private boolean isItemBlacklisted(TileItem item) {
-        String itemName = client.getItemDefinition(item.getId()).getName();
-        return lootBlacklist.stream().anyMatch((blItem) -> itemName.toLowerCase().contains(blItem.toLowerCase()));
+        });
     }
 
     @Subscribe
-    private void onPlayerDespawned(PlayerDespawned event) {
-        Player player = client.getLocalPlayer();
-
-        if (event.getPlayer() == player) {
-            if (teleportInProgress) {
-                log.info("Player despawned due to teleport.");
-                teleportInProgress = false;
-                return;
+    private void onGameStateChanged(GameStateChanged event) {
+        profiler.time(AutoWhispererPlugin.class, "onGameStateChanged", () -> {
+            // Loot of the previous scene can never be reached again, the loot of the new scene is
+            // re-announced through ItemSpawned once loading completes
+            if (event.getGameState() == GameState.LOADING || event.getGameState() == GameState.LOGIN_SCREEN) {
+                loot.clear();
             }
+        });
+    }
 
-            log.info("Player despawned (likely died). Clearing loot list in {} ticks.", LOOT_CLEAR_DELAY);
-            pendingLootClear = true;
-            timeout = LOOT_CLEAR_DELAY;
-        }
+    // After the inventory model, so the count includes this change
+    @Subscribe(priority = -1)
+    private void onItemContainerChanged(ItemContainerChanged event) {
+        profiler.time(AutoWhispererPlugin.class, "onItemContainerChanged", () -> {
+            if (taking != null && event.getContainerId() == InventoryID.INVENTORY.getId()
+                    && inventory.getCount(taking.getId()) > takingCount) {
+                lootPickedUp.increment();
+                taking = null;
+            }
+        });
     }
 
+    private boolean isItemBlacklisted(TileItem item) {
+        return lootBlacklist.matches(item.getId());
+    }
 
     @Subscribe
-    private void onProjectileSpawned(ProjectileSpawned event) {
-        Projectile projectile = event.getProjectile();
-        Prayer prayer = PRAYER_MAP.get(projectile.getId());
-        if (prayer != null) {
-            if (!client.isPrayerActive(prayer)) {
-                activatePrayer(prayer);
+    private void onStatChanged(StatChanged event) {
+        profiler.time(AutoWhispererPlugin.class, "onStatChanged", () -> {
+            if (event.getSkill() == Skill.HITPOINTS && event.getBoostedLevel() == 0) {
+                log.info("Player died. Clearing loot list in {} ticks.", LOOT_CLEAR_DELAY);
+                deaths.increment();
+                startScript(LOOT_CLEAR_DELAY);
             }
-        }
+        });
     }
 
-    private void activatePrayer(Prayer prayer) {
-        Widget prayerWidget = client.getWidget(prayer.getWidgetInfo().getId());
-        if (prayerWidget == null) {
-            log.error("Could not find prayer widget");
-            return;
-        }
-        log.info("Activating prayer id: {} name: {}", prayerWidget.getId(), prayerWidget.getName());
-        client.invokeMenuAction(
-                "Activate",
-                prayerWidget.getName(),
-                1,
-                MenuAction.CC_OP.getId(),
-                -1,
-                prayerWidget.getId()
-        );
+    /**
+     * Starts the kill loop after the given number of ticks, clearing the loot list first when delayed.
+     */
+    private void startScript(int delay) {
+        stopScript();
+
+        Completable clear = delay == 0
+                ? Completable.complete()
+                : scripts.ticks(delay).andThen(scripts.step(() -> {
+                    log.info("Clearing loot list after death.");
+                    loot.clear();
+                }));
+        script = scripts.run("AutoWhisperer", clear.andThen(Completable.defer(this::nextTrip).repeat()));
     }
 
+    private void stopScript() {
+        if (script != null) {
+            script.dispose();
+            script = null;
+        }
+    }
 
-    @Subscribe
-    private void onGameTick(GameTick event) {
-        if (timeout > 0) {
-            timeout--;
-            return;
+    private Completable nextTrip() {
+        if (!tickContext.hasPlayer()) {
+            return scripts.until(tickContext::hasPlayer);
         }
-        if (pendingLootClear) {
-            log.info("Clearing loot list after death.");
-            loot.clear();
-            pendingLootClear = false;
-            return;
+        if (getCurrentRegion() == HOME_REGION) {
+            if (returningHome) {
+                returningHome = false;
+                checkpoints.checkpoint(CHECKPOINT);
+            }
+            log.info("Player is at home. Casting previous teleport...");
+            return travel();
+        }
+        if (isWhispererAlive()) {
+            return fight();
         }
 
-        int currentRegion = getCurrentRegion();
-        if (currentRegion == HOME_REGION) {
-            log.info("Player is at home. Casting previous teleport...");
-            previousTeleport();
-            timeout = 2;
-        } else {
-            if (isWhispererAlive() && !isPlayerAttacking()) {
-                log.info("Whisperer is alive and not attacking. Attacking...");
-                attackWhisperer();
-                timeout = 2;
-            } else if (!isWhispererAlive()) {
-                if (loot.isEmpty() && !waitingForLoot) {
-                    log.info("Whisperer is dead. Waiting for loot to spawn...");
-                    timeout = 4;
-                    waitingForLoot = true;
-                } else if (!loot.isEmpty()) {
-                    log.info("Whisperer is dead. Looting items...");
-                    lootItems();
-                    timeout = 1;
-                    waitingForLoot = false;
-                } else if (isLowOnPrayer() && loot.isEmpty()) {
-                    log.info("Low on prayer. Casting previous teleport...");
-                    homeTeleport();
-                    timeout = 10;
-                } else {
-                    log.info("Whisperer is dead, no loot available. Starting new instance...");
-                    previousTeleport();
-                    timeout = 2;
-                    waitingForLoot = false;
-                }
+        return collectLoot().andThen(Completable.defer(() -> {
+            if (returningHome || isLowOnPrayer()) {
+                log.info("Low on prayer. Casting home teleport...");
+                returningHome = true;
+                checkpoints.checkpoint(CHECKPOINT);
+                return scripts.attempt(this::homeTeleport, scripts.until(() -> getCurrentRegion() == HOME_REGION),
+                        HOME_TELEPORT_TIMEOUT).andThen(scripts.step(teleports::increment));
             }
-        }
+            log.info("Whisperer is dead, no loot available. Starting new instance...");
+            return travel();
+        }));
+    }
+
+    private Completable fight() {
+        return Completable.concatArray(
+                scripts.step(() -> log.info("Whisperer is alive. Attacking...")),
+                scripts.attempt(this::attackWhisperer,
+                        scripts.until(() -> isPlayerAttacking() || !isWhispererAlive()), ATTACK_TIMEOUT),
+                scripts.until(() -> !isWhispererAlive() || !isPlayerAttacking()),
+                scripts.step(() -> {
+                    if (!isWhispererAlive()) {
+                        kills.increment();
+                    }
+                }));
+    }
+
+    private Completable collectLoot() {
+        // The loot lands a few ticks after the kill
+        Completable spawned = scripts.within(scripts.until(() -> !loot.isEmpty()), LOOT_SPAWN_TIMEOUT).ignoreElement();
+        Completable pickUp = Completable.defer(() -> {
+            int remaining = loot.size();
+            return loot.isEmpty()
+                    ? Completable.complete()
+                    : scripts.attempt(this::lootItems, scripts.until(() -> loot.size() < remaining), LOOT_TIMEOUT);
+        });
+        return spawned.andThen(pickUp.repeatUntil(loot::isEmpty));
+    }
+
+    private Completable travel() {
+        return Completable.defer(() -> {
+            int region = getCurrentRegion();
+            return scripts.attempt(this::previousTeleport,
+                    scripts.until(() -> getCurrentRegion() != region || isWhispererAlive()), TRAVEL_TIMEOUT)
+                    .andThen(scripts.step(teleports::increment));
+        });
     }
 
     private int getCurrentRegion() {
-        return client.getLocalPlayer().getWorldLocation().getRegionID();
+        return tickContext.getRegionId();
     }
 
     private boolean isLowOnPrayer() {
-        int currentPrayer = client.getBoostedSkillLevel(Skill.PRAYER);
-        int maxPrayer = client.getRealSkillLevel(Skill.PRAYER);
+        int currentPrayer = tickContext.getBoostedLevel(Skill.PRAYER);
+        int maxPrayer = tickContext.getRealLevel(Skill.PRAYER);
         return currentPrayer < maxPrayer * 0.2; // Less than 20% of max prayer
     }
 
     private boolean isWhispererAlive() {
-        return client.getNpcs().stream()
-                .anyMatch(npc -> npc.getName() != null && npc.getName().toLowerCase().contains("whisperer"));
+        return npcIndex.count(WHISPERER) > 0;
     }
 
     private boolean isPlayerAttacking() {
-        Actor interacting = client.getLocalPlayer().getInteracting();
+        Actor interacting = tickContext.getInteracting();
         if (interacting == null) {
             return false;
         }
 
-        if (!(interacting instanceof NPC)) {
-            return false;
-        }
-        NPC npc = (NPC) interacting;
-
-        return npc.getName() != null && npc.getName().toLowerCase().contains("whisperer");
+        return npcIndex.isNamed(interacting, WHISPERER);
     }
 
     private void attackWhisperer() {
-        Optional<NPC> npcOptional = client.getNpcs().stream()
-                .filter(npc -> npc.getName() != null && npc.getName().toLowerCase().contains("whisperer"))
-                .findFirst();
+        NPC whisperer = npcIndex.getFirst(WHISPERER);
 
-        if (npcOptional.isEmpty()) {
+        if (whisperer == null) {
             log.info("Could not find whisperer");
             return;
         }
-        NPC whisperer = npcOptional.get();
-        client.invokeMenuAction(
+        dispatcher.submit(
+                ActionPriority.ATTACK,
                 "Attack",
                 whisperer.getName(),
                 whisperer.getIndex(),
@@ -220,43 +357,30 @@ public class AutoWhispererPlugin extends Plugin {
         }
 
         log.info("Loot available:");
-        for (TileItem item : loot) {
-            String itemName = client.getItemDefinition(item.getId()).getName();
+        for (LootTracker.Loot entry : loot.getLoot()) {
+            String itemName = client.getItemDefinition(entry.item.getId()).getName();
             log.info("- {}", itemName);
         }
 
-        // Pick up the nearest item
-        TileItem lootItem = getNearestTileItem(loot);
-        if (lootItem != null) {
-            client.invokeMenuAction(
+        // Pick up the item with the shortest walk
+        LootTracker.Loot nearest = loot.getNearest(reachability);
+        if (nearest != null) {
+            dispatcher.submit(
+                    ActionPriority.LOOT,
                     "Take",
-                    client.getItemDefinition(lootItem.getId()).getName(),
-                    lootItem.getId(),
+                    client.getItemDefinition(nearest.item.getId()).getName(),
+                    nearest.item.getId(),
                     MenuAction.GROUND_ITEM_THIRD_OPTION.getId(),
-                    lootItem.getTile().getSceneLocation().getX(), lootItem.getTile().getSceneLocation().getY()
+                    nearest.sceneX, nearest.sceneY
             );
+            taking = nearest.item;
+            takingCount = inventory.getCount(taking.getId());
         }
     }
 
-    private TileItem getNearestTileItem(List<TileItem> tileItems) {
-        Player player = client.getLocalPlayer();
-
-        int currentDistance;
-        TileItem closestTileItem = tileItems.get(0);
-        int closestDistance = closestTileItem.getTile().getWorldLocation().distanceTo(player.getWorldLocation());
-        for (TileItem tileItem : tileItems) {
-            currentDistance = tileItem.getTile().getWorldLocation().distanceTo(player.getWorldLocation());
-            if (currentDistance < closestDistance) {
-                closestTileItem = tileItem;
-                closestDistance = currentDistance;
-            }
-        }
-        return closestTileItem;
-    }
-
     private void homeTeleport() {
-        teleportInProgress = true;
-        client.invokeMenuAction(
+        dispatcher.submit(
+                ActionPriority.TRAVEL,
                 "Cast",
                 "<col=00ff00>Edgeville Home Teleport</col>",
                 1,
@@ -267,7 +391,8 @@ public class AutoWhispererPlugin extends Plugin {
     }
 
     private void previousTeleport() {
-        client.invokeMenuAction(
+        dispatcher.submit(
+                ActionPriority.TRAVEL,
                 "Previous-teleport",
                 "<col=00ff00>Edgeville Home Teleport</col>",
                 2,
@@ -279,8 +404,8 @@ public class AutoWhispererPlugin extends Plugin {
     }
 
     private void widgetContinue() {
-        teleportInProgress = true;
-        client.invokeMenuAction(
+        dispatcher.submit(
+                ActionPriority.INTERFACE,
                 "Continue",
                 "",
                 0,
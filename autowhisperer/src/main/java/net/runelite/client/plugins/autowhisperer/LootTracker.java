@@ -0,0 +1,85 @@
+package net.runelite.client.plugins.autowhisperer;
+
+import net.runelite.api.Point;
+import net.runelite.api.Tile;
+import net.runelite.api.TileItem;
+import net.runelite.client.plugins.papayautils.Reachability;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded set of ground items worth picking up. Each entry caches the coordinates of its tile
+ * when it spawns, so nearest-item queries do no client calls. Everything is dropped on region
+ * change or death.
+ */
+class LootTracker {
+    private final int capacity;
+    private final LinkedHashMap<TileItem, Loot> loot;
+
+    LootTracker(int capacity) {
+        this.capacity = capacity;
+        this.loot = new LinkedHashMap<>(capacity * 2) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileItem, Loot> eldest) {
+                return size() > LootTracker.this.capacity;
+            }
+        };
+    }
+
+    void add(TileItem item, Tile tile) {
+        Point sceneLocation = tile.getSceneLocation();
+        loot.put(item, new Loot(item, tile.getWorldLocation().getPlane(), sceneLocation.getX(), sceneLocation.getY()));
+    }
+
+    boolean remove(TileItem item) {
+        return loot.remove(item) != null;
+    }
+
+    void clear() {
+        loot.clear();
+    }
+
+    boolean isEmpty() {
+        return loot.isEmpty();
+    }
+
+    int size() {
+        return loot.size();
+    }
+
+    Collection<Loot> getLoot() {
+        return loot.values();
+    }
+
+    /**
+     * Returns the entry the player can walk to in the fewest steps, or null if nothing is tracked.
+     */
+    Loot getNearest(Reachability reachability) {
+        Loot nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (Loot entry : loot.values()) {
+            int distance = reachability.getWalkCost(entry.plane, entry.sceneX, entry.sceneY);
+            if (nearest == null || distance < nearestDistance) {
+                nearest = entry;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    static final class Loot {
+        final TileItem item;
+        final int plane;
+        final int sceneX;
+        final int sceneY;
+
+        private Loot(TileItem item, int plane, int sceneX, int sceneY) {
+            this.item = item;
+            this.plane = plane;
+            this.sceneX = sceneX;
+            this.sceneY = sceneY;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019 Owain van Brakel <https://github.com/Owain94>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+plugins {
+    id("me.champeau.jmh") version "0.6.6"
+}
+
+version = "1.0.0"
+
+// JMH benchmarks of the per-tick hot paths, run with gradlew :benchmarks:jmh
+
+dependencies {
+    jmhImplementation(project(":testkit"))
+    jmhImplementation(project(":papayautils"))
+    jmhImplementation(project(":autoprayerpot"))
+    jmhImplementation(project(":autowhisperer"))
+
+    jmhCompileOnly(rootProject.fileTree("libs") {
+        include("client.jar")
+    })
+    jmhImplementation(Libraries.gson)
+    jmhImplementation(Libraries.guice)
+}
+
+jmh {
+    benchmarkMode.set(listOf("avgt"))
+    timeUnit.set("ns")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    resultsFile.set(project.file("build/reports/jmh/results.json"))
+}
+
+tasks {
+    jar {
+        enabled = false
+    }
+
+    // Keep the benchmark jar out of build/libs, which is copied to releases/
+    named<Jar>("jmhJar") {
+        destinationDirectory.set(project.file("build/jmh-libs"))
+    }
+
+    // gradlew :benchmarks:compareBenchmarks -Pbaseline=path/to/results.json
+    register<JavaExec>("compareBenchmarks") {
+        group = "verification"
+        description = "Fails when a benchmark regressed against a baseline results.json"
+        classpath = project.the<SourceSetContainer>()["jmh"].runtimeClasspath
+        mainClass.set("net.runelite.client.plugins.benchmarks.CompareResults")
+        args = listOf(
+            (project.findProperty("baseline") ?: "baseline.json").toString(),
+            project.file("build/reports/jmh/results.json").path
+        )
+    }
+}
@@ -0,0 +1,50 @@
+package net.runelite.client.plugins.autowhisperer;
+
+import net.runelite.api.Point;
+import net.runelite.api.Tile;
+import net.runelite.api.TileItem;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.plugins.papayautils.Reachability;
+import net.runelite.client.plugins.testkit.Fake;
+import net.runelite.client.plugins.testkit.SceneSpec;
+import net.runelite.client.plugins.testkit.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Nearest loot selection of AutoWhisperer, by walking distance over the simulated scene. Lives in the plugin's package as the tracker is package-private.
+ */
+@State(Scope.Benchmark)
+public class LootTrackerBenchmark {
+    @Param({"5", "20", "64"})
+    public int piles;
+
+    private LootTracker loot;
+    private Reachability reachability;
+
+    @Setup
+    public void setUp() {
+        reachability = new Simulation(SceneSpec.builder().build()).getInstance(Reachability.class);
+        loot = new LootTracker(64);
+        Random random = new Random(1);
+        for (int i = 0; i < piles; i++) {
+            int x = random.nextInt(20);
+            int y = random.nextInt(20);
+            Tile tile = Fake.of(Tile.class)
+                    .answer("getWorldLocation", new WorldPoint(2640 + x, 6350 + y, 0))
+                    .answer("getSceneLocation", new Point(40 + x, 40 + y))
+                    .build();
+            loot.add(Fake.of(TileItem.class).answer("getId", 995).build(), tile);
+        }
+    }
+
+    @Benchmark
+    public Object nearest() {
+        return loot.getNearest(reachability);
+    }
+}
@@ -0,0 +1,42 @@
+package net.runelite.client.plugins.benchmarks;
+
+import net.runelite.api.Skill;
+import net.runelite.client.plugins.autoprayerpot.AutoPrayerPotPlugin;
+import net.runelite.client.plugins.testkit.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A full AutoPrayerPot tick, with prayer above the threshold (the common case) and below it.
+ * The prayer level is set again before every tick, so each tick schedules the sip anew and,
+ * below the threshold, drinks.
+ */
+@State(Scope.Benchmark)
+public class AutoPrayerPotBenchmark {
+    @Param({Scenes.SMALL, Scenes.TYPICAL, Scenes.WORST})
+    public String scene;
+
+    @Param({"99", "10"})
+    public int prayer;
+
+    private Simulation simulation;
+
+    @Setup
+    public void setUp() {
+        simulation = new Simulation(Scenes.spec(scene));
+        simulation.getFake().setSkill(Skill.PRAYER, prayer, 99);
+        simulation.start(AutoPrayerPotPlugin.class);
+    }
+
+    @Benchmark
+    public void onGameTick() {
+        simulation.setSkill(Skill.PRAYER, prayer, 99);
+        simulation.run(1, s -> {
+        });
+        // The sips are not needed and would pile up over the iterations
+        simulation.getFake().getActions().clear();
+    }
+}
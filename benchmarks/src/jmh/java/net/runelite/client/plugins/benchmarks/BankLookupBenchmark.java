@@ -0,0 +1,52 @@
+package net.runelite.client.plugins.benchmarks;
+
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.plugins.papayautils.ItemMatcher;
+import net.runelite.client.plugins.papayautils.ItemMatchers;
+import net.runelite.client.plugins.papayautils.WidgetIndex;
+import net.runelite.client.plugins.testkit.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Finding the item to withdraw in the bank, both while the bank is unchanged and right after
+ * it changed, when the index has to be rebuilt.
+ */
+@State(Scope.Benchmark)
+public class BankLookupBenchmark {
+    @Param({Scenes.SMALL, Scenes.TYPICAL, Scenes.WORST})
+    public String scene;
+
+    private WidgetIndex widgetIndex;
+    private ItemMatcher adamantiteBars;
+    private int[] bank;
+    private Simulation simulation;
+
+    @Setup
+    public void setUp() {
+        simulation = new Simulation(Scenes.spec(scene));
+        widgetIndex = simulation.getInstance(WidgetIndex.class);
+        adamantiteBars = simulation.getInstance(ItemMatchers.class).nameEquals("Adamantite bar");
+
+        bank = new int[Scenes.spec(scene).getBankSize()];
+        for (int i = 0; i < bank.length; i++) {
+            Widget child = simulation.getFake().getClient().getWidget(WidgetInfo.BANK_ITEM_CONTAINER.getId()).getDynamicChildren()[i];
+            bank[i] = child.getItemId();
+        }
+    }
+
+    @Benchmark
+    public Widget withdrawLookup() {
+        return widgetIndex.findItem(WidgetInfo.BANK_ITEM_CONTAINER, adamantiteBars);
+    }
+
+    @Benchmark
+    public Widget withdrawLookupAfterBankChange() {
+        simulation.getScene().setBank(bank);
+        return widgetIndex.findItem(WidgetInfo.BANK_ITEM_CONTAINER, adamantiteBars);
+    }
+}
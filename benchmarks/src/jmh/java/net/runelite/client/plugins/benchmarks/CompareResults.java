@@ -0,0 +1,92 @@
+package net.runelite.client.plugins.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and exits with status 1 when a benchmark got slower than
+ * the allowed threshold:
+ *
+ * <pre>
+ * CompareResults baseline.json results.json [--threshold=10]
+ * </pre>
+ */
+public final class CompareResults {
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <results.json> [--threshold=PERCENT]");
+            System.exit(2);
+            return;
+        }
+
+        double threshold = 10;
+        if (args.length > 2 && args[2].startsWith("--threshold=")) {
+            threshold = Double.parseDouble(args[2].substring(12));
+        }
+
+        Map<String, Double> baseline = read(args[0]);
+        Map<String, Double> current = read(args[1]);
+
+        int regressions = 0;
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            Double before = baseline.get(entry.getKey());
+            if (before == null || before == 0) {
+                System.out.printf("%-90s %12.3f (new)%n", entry.getKey(), entry.getValue());
+                continue;
+            }
+
+            double change = (entry.getValue() - before) / before * 100;
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %12.3f %+7.1f%%%s%n", entry.getKey(), entry.getValue(), change,
+                    regressed ? " REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmarks regressed by more than %.0f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the score of each benchmark and parameter combination, normalized so higher is slower.
+     */
+    private static Map<String, Double> read(String path) throws IOException {
+        JsonArray results;
+        try (Reader reader = Files.newBufferedReader(Paths.get(path))) {
+            results = new JsonParser().parse(reader).getAsJsonArray();
+        }
+
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (JsonElement element : results) {
+            JsonObject result = element.getAsJsonObject();
+            StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+            if (result.has("params")) {
+                for (Map.Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet()) {
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().getAsString());
+                }
+            }
+
+            double score = result.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+            if (result.get("mode").getAsString().equals("thrpt")) {
+                score = score == 0 ? Double.MAX_VALUE : 1 / score;
+            }
+            scores.put(key.toString(), score);
+        }
+        return scores;
+    }
+}
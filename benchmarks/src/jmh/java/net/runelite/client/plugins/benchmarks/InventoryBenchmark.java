@@ -0,0 +1,65 @@
+package net.runelite.client.plugins.benchmarks;
+
+import net.runelite.client.plugins.papayautils.InventoryModel;
+import net.runelite.client.plugins.papayautils.ItemMatcher;
+import net.runelite.client.plugins.papayautils.ItemMatchers;
+import net.runelite.client.plugins.testkit.SceneGenerator;
+import net.runelite.client.plugins.testkit.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+
+/**
+ * Inventory counts and item name matching, the checks every plugin makes each tick.
+ */
+@State(Scope.Benchmark)
+public class InventoryBenchmark {
+    @Param({Scenes.SMALL, Scenes.TYPICAL, Scenes.WORST})
+    public String scene;
+
+    private InventoryModel inventory;
+    private ItemMatcher dragonBones;
+    private ItemMatcher lootBlacklist;
+    private int[] groundItemIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Simulation simulation = new Simulation(Scenes.spec(scene));
+        inventory = simulation.getInstance(InventoryModel.class);
+
+        ItemMatchers matchers = simulation.getInstance(ItemMatchers.class);
+        dragonBones = matchers.nameContains("dragon bone");
+        lootBlacklist = matchers.nameContains("manta ray", "super combat", "super attack", "bone");
+
+        int[] items = new int[28];
+        Arrays.fill(items, SceneGenerator.DRAGON_BONES);
+        items[0] = SceneGenerator.COINS;
+        simulation.getScene().setInventory(items);
+
+        groundItemIds = new int[1024];
+        for (int i = 0; i < groundItemIds.length; i++) {
+            groundItemIds[i] = 4000 + i % 6;
+        }
+    }
+
+    @Benchmark
+    public int inventoryCount() {
+        return inventory.getCount(dragonBones);
+    }
+
+    @Benchmark
+    public int firstSlot() {
+        return inventory.getFirstSlot(dragonBones);
+    }
+
+    @Benchmark
+    public boolean itemBlacklisted() {
+        next = (next + 1) & (groundItemIds.length - 1);
+        return lootBlacklist.matches(groundItemIds[next]);
+    }
+}
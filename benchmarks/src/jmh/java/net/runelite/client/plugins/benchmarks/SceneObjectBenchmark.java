@@ -0,0 +1,55 @@
+package net.runelite.client.plugins.benchmarks;
+
+import net.runelite.api.GameObject;
+import net.runelite.client.plugins.papayautils.SceneObjectIndex;
+import net.runelite.client.plugins.papayautils.SceneSnapshot;
+import net.runelite.client.plugins.testkit.SceneGenerator;
+import net.runelite.client.plugins.testkit.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Nearest object lookups as done by AutoPrayer and PerkPoints when walking to a bank, anvil or altar,
+ * both on the client thread and split into the snapshot and the plan made from it.
+ */
+@State(Scope.Benchmark)
+public class SceneObjectBenchmark {
+    @Param({Scenes.SMALL, Scenes.TYPICAL, Scenes.WORST})
+    public String scene;
+
+    private SceneObjectIndex index;
+    private SceneSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        index = new Simulation(Scenes.spec(scene)).getInstance(SceneObjectIndex.class);
+        snapshot = index.snapshot("bank");
+    }
+
+    @Benchmark
+    public GameObject nearestByName() {
+        return index.getNearest("bank");
+    }
+
+    // Client thread part of a planned lookup
+    @Benchmark
+    public SceneSnapshot snapshotByName() {
+        return index.snapshot("bank");
+    }
+
+    // Worker part of a planned lookup
+    @Benchmark
+    public SceneSnapshot.Target planNearest() {
+        return snapshot.nearest();
+    }
+
+    @Benchmark
+    public List<GameObject> objectsById() {
+        return index.getObjects(SceneGenerator.ALTAR);
+    }
+}
@@ -0,0 +1,29 @@
+package net.runelite.client.plugins.benchmarks;
+
+import net.runelite.client.plugins.testkit.SceneSpec;
+
+/**
+ * Scene sizes every benchmark runs against.
+ */
+final class Scenes {
+    static final String SMALL = "SMALL";
+    static final String TYPICAL = "TYPICAL";
+    static final String WORST = "WORST";
+
+    private Scenes() {
+    }
+
+    static SceneSpec spec(String scene) {
+        switch (scene) {
+            case SMALL:
+                return SceneSpec.builder().objectsPerTile(0.1).npcCount(10).bankSize(50).lootPiles(5).build();
+            case TYPICAL:
+                return SceneSpec.builder().objectsPerTile(0.5).npcCount(50).bankSize(400).lootPiles(20).build();
+            case WORST:
+                // Dense city scene, full bank, a capped loot tracker
+                return SceneSpec.builder().objectsPerTile(4).npcCount(500).bankSize(1400).lootPiles(64).build();
+            default:
+                throw new IllegalArgumentException("Unknown scene " + scene);
+        }
+    }
+}
@@ -81,8 +81,14 @@ subprojects {
         compileOnly(Libraries.okhttp3)
         compileOnly(Libraries.pf4j)
         compileOnly(Libraries.rxjava)
+
+        testImplementation(Libraries.junit)
+        testAnnotationProcessor(Libraries.lombok)
     }
 
+    // Tests run against the client and libraries the plugins are only compiled against
+    configurations["testImplementation"].extendsFrom(configurations["compileOnly"])
+
     tasks {
         withType<JavaCompile> {
             options.encoding = "UTF-8"
@@ -0,0 +1,36 @@
+package net.runelite.client.plugins.debugger;
+
+import net.runelite.client.config.Config;
+import net.runelite.client.config.ConfigGroup;
+import net.runelite.client.config.ConfigItem;
+import net.runelite.client.config.Range;
+
+@ConfigGroup("debugger")
+public interface DebuggerConfig extends Config {
+
+    enum Mode {
+        LOG,
+        RECORD
+    }
+
+    @ConfigItem(
+            keyName = "mode",
+            name = "Mode",
+            description = "Log events as text, or record them to a binary capture file in .runelite/papaya",
+            position = 1
+    )
+    default Mode mode() {
+        return Mode.LOG;
+    }
+
+    @ConfigItem(
+            keyName = "recordingCapacity",
+            name = "Recording capacity",
+            description = "How many events the capture file holds before the oldest are overwritten",
+            position = 2
+    )
+    @Range(min = 1, max = EventRecording.MAX_CAPACITY)
+    default int recordingCapacity() {
+        return 1 << 20;
+    }
+}
@@ -1,18 +1,29 @@
 package net.runelite.client.plugins.debugger;
 
+import com.google.inject.Provides;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Actor;
 import net.runelite.api.Client;
+import net.runelite.api.NPC;
 import net.runelite.api.Projectile;
+import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.GameTick;
 import net.runelite.api.events.MenuOptionClicked;
 import net.runelite.api.events.ProjectileSpawned;
+import net.runelite.client.RuneLite;
+import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import org.pf4j.Extension;
 
 import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 
 
 @Extension
@@ -24,11 +35,59 @@ import javax.inject.Inject;
 )
 @Slf4j
 public class DebuggerPlugin extends Plugin {
+    private static final File RECORDING_DIR = new File(RuneLite.RUNELITE_DIR, "papaya");
+    private static final DateTimeFormatter RECORDING_NAME = DateTimeFormatter.ofPattern("'debugger-'yyyyMMdd-HHmmss-SSS'.bin'");
+    private static final int MAX_CAPTURES = 5;
+
     @Inject
     private Client client;
+
+    @Inject
+    private DebuggerConfig config;
+
+    private EventRecorder recorder;
+    private File recordingFile;
     private int tick = 0;
+
+    @Provides
+    DebuggerConfig provideConfig(ConfigManager configManager)
+    {
+        return configManager.getConfig(DebuggerConfig.class);
+    }
+
+    @Override
+    protected void startUp() {
+        openRecorder();
+    }
+
+    @Override
+    protected void shutDown() {
+        closeRecorder();
+    }
+
+    @Subscribe
+    void onConfigChanged(ConfigChanged event) {
+        if (!event.getGroup().equals("debugger")) {
+            return;
+        }
+
+        // Keep recording into the same capture unless its capacity changed
+        boolean recording = config.mode() == DebuggerConfig.Mode.RECORD;
+        if (recorder != null && recording && recorder.getCapacity() == config.recordingCapacity()) {
+            return;
+        }
+        closeRecorder();
+        openRecorder();
+    }
+
     @Subscribe
     void onMenuOptionClicked(MenuOptionClicked event) {
+        if (recorder != null) {
+            recorder.record(client.getTickCount(), EventRecording.MENU_OPTION_CLICKED, event.getId(),
+                    event.getMenuAction().getId(), event.getParam0(), event.getParam1(), event.getItemId(), 0);
+            return;
+        }
+
         log.info("==== Menu Option Clicked ====");
         log.info("Menu Option: {}", event.getMenuOption());
         log.info("Menu Target: {}", event.getMenuTarget());
@@ -42,7 +101,16 @@ public class DebuggerPlugin extends Plugin {
     @Subscribe
     void onProjectileSpawned(ProjectileSpawned event) {
         Projectile projectile =  event.getProjectile();
-        String interactingName = projectile.getInteracting().getName();
+        Actor interacting = projectile.getInteracting();
+
+        if (recorder != null) {
+            recorder.record(client.getTickCount(), EventRecording.PROJECTILE_SPAWNED, projectile.getId(),
+                    (int) projectile.getX(), (int) projectile.getY(), projectile.getEndCycle() - client.getGameCycle(),
+                    interacting instanceof NPC ? ((NPC) interacting).getId() : -1, 0);
+            return;
+        }
+
+        String interactingName = interacting == null ? null : interacting.getName();
         String className = projectile.getModel().getClass().toString();
         log.info("==== Projectile Spawned ====");
         log.debug("Projectile ID: {}, X: {}, Y: {}, Speed: {}, Height: {}, Interacting Name: {}. Class Name: {}",
@@ -54,8 +122,64 @@ public class DebuggerPlugin extends Plugin {
     void onGameTick(GameTick event) {
         tick++;
         if(tick >= 10) {
-            log.info("Region ID: {}", client.getLocalPlayer().getWorldLocation().getRegionID() );
+            WorldPoint location = client.getLocalPlayer().getWorldLocation();
+            if (recorder != null) {
+                recorder.record(client.getTickCount(), EventRecording.REGION, location.getRegionID(),
+                        location.getX(), location.getY(), location.getPlane(), 0, 0);
+            } else {
+                log.info("Region ID: {}", location.getRegionID());
+            }
             tick = 0;
         }
     }
+
+    private void openRecorder() {
+        if (config.mode() != DebuggerConfig.Mode.RECORD) {
+            return;
+        }
+
+        // Each capture gets a new file, a closed capture stays mapped until garbage collected and
+        // cannot be truncated on every platform
+        pruneCaptures();
+        recordingFile = new File(RECORDING_DIR, LocalDateTime.now().format(RECORDING_NAME));
+        try {
+            recorder = new EventRecorder(recordingFile, config.recordingCapacity());
+            log.info("Recording events to {}", recordingFile);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Unable to open {}, falling back to logging", recordingFile, e);
+        }
+    }
+
+    /**
+     * Deletes all but the newest captures, making room for the one about to be opened. The names
+     * sort by the time the capture was opened.
+     */
+    private void pruneCaptures() {
+        File[] captures = RECORDING_DIR.listFiles((dir, name) -> name.startsWith("debugger-") && name.endsWith(".bin"));
+        if (captures == null || captures.length < MAX_CAPTURES) {
+            return;
+        }
+
+        Arrays.sort(captures);
+        for (int i = 0; i <= captures.length - MAX_CAPTURES; i++) {
+            // A capture still mapped by this client cannot be deleted on every platform, the next
+            // capture tries again
+            if (!captures[i].delete()) {
+                log.debug("Unable to delete old capture {}", captures[i]);
+            }
+        }
+    }
+
+    private void closeRecorder() {
+        if (recorder == null) {
+            return;
+        }
+
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            log.warn("Unable to close {}", recordingFile, e);
+        }
+        recorder = null;
+    }
 }
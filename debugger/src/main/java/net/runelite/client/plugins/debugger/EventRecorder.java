@@ -0,0 +1,79 @@
+package net.runelite.client.plugins.debugger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Appends events as fixed-width records to a memory-mapped ring file, see {@link EventRecording}.
+ * Recording an event only writes a few ints into the mapping; the operating system flushes it to
+ * disk, so a capture survives a client crash.
+ */
+class EventRecorder implements AutoCloseable {
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private long written;
+
+    EventRecorder(File path, int capacity) throws IOException {
+        if (capacity <= 0 || capacity > EventRecording.MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + EventRecording.MAX_CAPACITY);
+        }
+
+        File parent = path.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Unable to create " + parent);
+        }
+
+        this.capacity = capacity;
+        long size = EventRecording.HEADER_SIZE + (long) capacity * EventRecording.RECORD_SIZE;
+
+        file = new RandomAccessFile(path, "rw");
+        try {
+            file.setLength(size);
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, EventRecording.MAGIC);
+        buffer.putInt(4, EventRecording.VERSION);
+        buffer.putInt(8, EventRecording.RECORD_SIZE);
+        buffer.putInt(12, capacity);
+        buffer.putLong(EventRecording.WRITTEN_OFFSET, 0);
+    }
+
+    void record(int tick, int type, int id, int a, int b, int c, int d, int e) {
+        int offset = EventRecording.HEADER_SIZE + (int) (written % capacity) * EventRecording.RECORD_SIZE;
+        buffer.putInt(offset, tick);
+        buffer.putInt(offset + 4, type);
+        buffer.putInt(offset + 8, id);
+        buffer.putInt(offset + 12, a);
+        buffer.putInt(offset + 16, b);
+        buffer.putInt(offset + 20, c);
+        buffer.putInt(offset + 24, d);
+        buffer.putInt(offset + 28, e);
+
+        // Publish the record only after it is complete
+        buffer.putLong(EventRecording.WRITTEN_OFFSET, ++written);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Flushes the mapping and closes the file. The mapping itself stays until it is garbage
+     * collected, so the file should not be opened again for writing, see {@link DebuggerPlugin}.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        file.close();
+    }
+}
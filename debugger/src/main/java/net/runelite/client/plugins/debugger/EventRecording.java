@@ -0,0 +1,64 @@
+package net.runelite.client.plugins.debugger;
+
+/**
+ * Layout of a capture file. A fixed header is followed by a ring of fixed-width records:
+ *
+ * <pre>
+ * header: int magic, int version, int recordSize, int capacity, long written
+ * record: int tick, int type, int id, int a, int b, int c, int d, int e
+ * </pre>
+ *
+ * {@code written} counts every record ever appended, so the oldest record in the ring is at
+ * {@code max(0, written - capacity) % capacity}. The meaning of the a-e fields depends on the type.
+ */
+final class EventRecording {
+    static final int MAGIC = 0x50415044; // PAPD
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 32;
+    static final int WRITTEN_OFFSET = 16;
+
+    // The whole file has to fit in one mapping
+    static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    /**
+     * id: identifier, a: opcode, b: param0, c: param1, d: item id
+     */
+    static final int MENU_OPTION_CLICKED = 1;
+
+    /**
+     * id: projectile id, a: local x, b: local y, c: cycles until impact, d: target npc id, -1 for a player
+     */
+    static final int PROJECTILE_SPAWNED = 2;
+
+    /**
+     * id: region id, a: world x, b: world y, c: plane
+     */
+    static final int REGION = 3;
+
+    private EventRecording() {
+    }
+
+    static String typeName(int type) {
+        switch (type) {
+            case MENU_OPTION_CLICKED:
+                return "MENU_OPTION_CLICKED";
+            case PROJECTILE_SPAWNED:
+                return "PROJECTILE_SPAWNED";
+            case REGION:
+                return "REGION";
+            default:
+                return "UNKNOWN_" + type;
+        }
+    }
+
+    static int typeOf(String name) {
+        for (int type = MENU_OPTION_CLICKED; type <= REGION; type++) {
+            if (typeName(type).equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown event type " + name);
+    }
+}
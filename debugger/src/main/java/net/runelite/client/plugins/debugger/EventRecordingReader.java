@@ -0,0 +1,107 @@
+package net.runelite.client.plugins.debugger;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Offline reader for capture files written by {@link EventRecorder}. Does not need a client:
+ *
+ * <pre>
+ * java -cp debugger.jar net.runelite.client.plugins.debugger.EventRecordingReader capture.bin
+ *     [--type=PROJECTILE_SPAWNED] [--id=2445] [--from=TICK] [--to=TICK] [--summary]
+ * </pre>
+ *
+ * Prints the matching records oldest first, or with --summary only the number of records per type and id.
+ */
+public final class EventRecordingReader {
+    private EventRecordingReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = null;
+        int type = -1;
+        Integer id = null;
+        int from = Integer.MIN_VALUE;
+        int to = Integer.MAX_VALUE;
+        boolean summary = false;
+
+        for (String arg : args) {
+            if (arg.startsWith("--type=")) {
+                type = EventRecording.typeOf(arg.substring(7));
+            } else if (arg.startsWith("--id=")) {
+                id = Integer.parseInt(arg.substring(5));
+            } else if (arg.startsWith("--from=")) {
+                from = Integer.parseInt(arg.substring(7));
+            } else if (arg.startsWith("--to=")) {
+                to = Integer.parseInt(arg.substring(5));
+            } else if (arg.equals("--summary")) {
+                summary = true;
+            } else {
+                path = Paths.get(arg);
+            }
+        }
+
+        if (path == null) {
+            System.err.println("Usage: EventRecordingReader <capture> [--type=NAME] [--id=ID] [--from=TICK] [--to=TICK] [--summary]");
+            System.exit(1);
+            return;
+        }
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.limit() < EventRecording.HEADER_SIZE || buffer.getInt(0) != EventRecording.MAGIC) {
+            throw new IOException(path + " is not a capture file");
+        }
+        if (buffer.getInt(4) != EventRecording.VERSION || buffer.getInt(8) != EventRecording.RECORD_SIZE) {
+            throw new IOException("Unsupported capture version " + buffer.getInt(4));
+        }
+
+        int capacity = buffer.getInt(12);
+        long written = buffer.getLong(EventRecording.WRITTEN_OFFSET);
+        long first = Math.max(0, written - capacity);
+
+        PrintStream out = System.out;
+        Map<String, Integer> counts = new TreeMap<>();
+        int matched = 0;
+
+        for (long n = first; n < written; n++) {
+            int offset = EventRecording.HEADER_SIZE + (int) (n % capacity) * EventRecording.RECORD_SIZE;
+            int recordTick = buffer.getInt(offset);
+            int recordType = buffer.getInt(offset + 4);
+            int recordId = buffer.getInt(offset + 8);
+
+            if ((type != -1 && recordType != type) || (id != null && recordId != id)
+                    || recordTick < from || recordTick > to) {
+                continue;
+            }
+
+            matched++;
+            if (summary) {
+                counts.merge(EventRecording.typeName(recordType) + " " + recordId, 1, Integer::sum);
+                continue;
+            }
+
+            out.printf("%d %s id=%d a=%d b=%d c=%d d=%d e=%d%n", recordTick, EventRecording.typeName(recordType),
+                    recordId, buffer.getInt(offset + 12), buffer.getInt(offset + 16), buffer.getInt(offset + 20),
+                    buffer.getInt(offset + 24), buffer.getInt(offset + 28));
+        }
+
+        if (summary) {
+            counts.forEach((key, count) -> out.printf("%8d %s%n", count, key));
+        }
+        out.printf("%d of %d records matched (%d written, %d overwritten)%n",
+                matched, written - first, written, first);
+    }
+}
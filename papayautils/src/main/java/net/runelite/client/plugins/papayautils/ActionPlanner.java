@@ -0,0 +1,120 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.client.callback.ClientThread;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs the expensive part of deciding on an action away from the client thread. A plan is
+ * captured on the client thread into an immutable snapshot, computed on a worker thread and its
+ * result applied back on the client thread. A result arriving after the tick it was captured in
+ * is dropped, as the scene it was planned for may have changed; the plugin plans again on a later
+ * tick.
+ */
+@Slf4j
+@Singleton
+public class ActionPlanner {
+    private final Client client;
+    private final ClientThread clientThread;
+    private final HandlerProfiler profiler;
+
+    // Only touched on the client thread
+    private final Set<String> inFlight = new HashSet<>();
+
+    private ExecutorService worker;
+    private Executor executor;
+
+    @Inject
+    ActionPlanner(Client client, ClientThread clientThread, HandlerProfiler profiler) {
+        this.client = client;
+        this.clientThread = clientThread;
+        this.profiler = profiler;
+    }
+
+    /**
+     * Plans on the given executor instead of the worker thread, e.g. {@code Runnable::run} to plan
+     * synchronously in a simulation.
+     */
+    public synchronized void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Captures a snapshot now, plans on the worker and hands the result, which may be null, to
+     * {@code apply} on the client thread. Must be called on the client thread. Returns false
+     * without capturing when a plan of the same name is still in flight.
+     */
+    public <S, R> boolean submit(String name, Supplier<S> capture, Function<S, R> plan, Consumer<R> apply) {
+        if (!inFlight.add(name)) {
+            return false;
+        }
+
+        int tick = client.getTickCount();
+        S snapshot;
+        try {
+            snapshot = capture.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(name);
+            throw e;
+        }
+
+        // Timed as ActionPlanner.<name>
+        executor().execute(() -> profiler.time(ActionPlanner.class, name, () -> {
+            R result;
+            try {
+                result = plan.apply(snapshot);
+            } catch (RuntimeException e) {
+                log.warn("Plan {} failed", name, e);
+                clientThread.invoke(() -> inFlight.remove(name));
+                return;
+            }
+
+            clientThread.invoke(() -> {
+                inFlight.remove(name);
+                if (client.getTickCount() != tick) {
+                    log.debug("Dropped plan {} from tick {}", name, tick);
+                    return;
+                }
+                apply.accept(result);
+            });
+        }));
+        return true;
+    }
+
+    /**
+     * Stops the worker thread, dropping the plans in flight; it is started again by the next plan.
+     */
+    public synchronized void shutdown() {
+        if (worker != null) {
+            worker.shutdownNow();
+            worker = null;
+        }
+        clientThread.invoke(inFlight::clear);
+    }
+
+    private synchronized Executor executor() {
+        if (executor != null) {
+            return executor;
+        }
+
+        if (worker == null) {
+            worker = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "papaya-planner");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return worker;
+    }
+}
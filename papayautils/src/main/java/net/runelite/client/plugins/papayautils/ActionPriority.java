@@ -0,0 +1,23 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Order in which submitted menu actions are dispatched, highest priority first.
+ * Exclusive actions direct the player in the world; the server only honours the last one
+ * of those per tick, so at most one of them is dispatched per tick.
+ */
+@Getter
+@AllArgsConstructor
+public enum ActionPriority {
+    PROTECTION_PRAYER(false),
+    POTION(false),
+    ATTACK(true),
+    LOOT(true),
+    TRAVEL(true),
+    INTERACT(true),
+    INTERFACE(false);
+
+    private final boolean exclusive;
+}
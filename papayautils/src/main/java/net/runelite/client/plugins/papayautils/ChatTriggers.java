@@ -0,0 +1,250 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.events.ChatMessage;
+import net.runelite.client.eventbus.Subscribe;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Routes chat messages to the plugins waiting for a phrase in them. The phrases of all plugins
+ * are compiled into a single Aho-Corasick automaton, so a message is scanned once no matter how
+ * many phrases are registered, and messages of types nobody listens to are not scanned at all.
+ * Phrases are matched case sensitively against the raw message.
+ */
+@Slf4j
+@Singleton
+public class ChatTriggers {
+    private static final ChatMessageType[] TYPES = ChatMessageType.values();
+
+    private final HandlerProfiler profiler;
+
+    private final List<Trigger> triggers = new ArrayList<>();
+
+    // Rebuilt on every (un)registration, messages are scanned by whichever automaton is current
+    private volatile Automaton automaton = new Automaton(new Trigger[0]);
+
+    @Inject
+    ChatTriggers(HandlerProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Calls the callback for each message of one of the given types that contains the phrase.
+     * Callbacks run on the client thread.
+     */
+    public void register(Object owner, String phrase, Consumer<ChatMessage> callback, ChatMessageType... types) {
+        if (phrase.isEmpty() || types.length == 0) {
+            throw new IllegalArgumentException("A chat trigger needs a phrase and at least one message type");
+        }
+
+        synchronized (triggers) {
+            triggers.add(new Trigger(owner, phrase, callback, EnumSet.copyOf(Arrays.asList(types))));
+            automaton = new Automaton(triggers.toArray(new Trigger[0]));
+        }
+    }
+
+    /**
+     * Removes every trigger registered by the owner.
+     */
+    public void unregister(Object owner) {
+        synchronized (triggers) {
+            if (triggers.removeIf(t -> t.owner == owner)) {
+                automaton = new Automaton(triggers.toArray(new Trigger[0]));
+            }
+        }
+    }
+
+    @Subscribe
+    public void onChatMessage(ChatMessage event) {
+        profiler.time(ChatTriggers.class, "onChatMessage", () -> {
+            Automaton current = automaton;
+            ChatMessageType type = event.getType();
+            if (type == null || !current.types[type.ordinal()] || event.getMessage() == null) {
+                return;
+            }
+
+            int matched = current.scan(event.getMessage(), type);
+            for (int i = 0; i < matched; i++) {
+                Trigger trigger = current.triggers[current.matches[i]];
+                try {
+                    trigger.callback.accept(event);
+                } catch (RuntimeException e) {
+                    log.warn("Chat trigger for \"{}\" failed", trigger.phrase, e);
+                }
+            }
+        });
+    }
+
+    private static final class Trigger {
+        private final Object owner;
+        private final String phrase;
+        private final Consumer<ChatMessage> callback;
+        private final Set<ChatMessageType> types;
+
+        private Trigger(Object owner, String phrase, Consumer<ChatMessage> callback, Set<ChatMessageType> types) {
+            this.owner = owner;
+            this.phrase = phrase;
+            this.callback = callback;
+            this.types = types;
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton over the phrases, with the failure links folded into a full
+     * transition table. Characters that occur in no phrase share symbol 0.
+     */
+    private static final class Automaton {
+        private final Trigger[] triggers;
+        private final boolean[] types = new boolean[TYPES.length];
+
+        private final int[] asciiSymbols = new int[128];
+        private final IntIntMap otherSymbols = new IntIntMap();
+        private int symbolCount = 1;
+
+        // next[state * symbolCount + symbol]
+        private int[] next;
+
+        // Triggers whose phrase ends in the state, including those ending in its failure chain
+        private int[][] outputs;
+
+        // Per scan: triggers found and when each was last found, so it fires once per message
+        private final int[] matches;
+        private final int[] matchedScan;
+        private int scan;
+
+        private Automaton(Trigger[] triggers) {
+            this.triggers = triggers;
+            this.matches = new int[triggers.length];
+            this.matchedScan = new int[triggers.length];
+
+            for (Trigger trigger : triggers) {
+                for (ChatMessageType type : trigger.types) {
+                    types[type.ordinal()] = true;
+                }
+                for (int i = 0; i < trigger.phrase.length(); i++) {
+                    char c = trigger.phrase.charAt(i);
+                    if (symbol(c) == 0) {
+                        if (c < 128) {
+                            asciiSymbols[c] = symbolCount++;
+                        } else {
+                            otherSymbols.put(c, symbolCount++);
+                        }
+                    }
+                }
+            }
+
+            build();
+        }
+
+        private void build() {
+            // Trie, state 0 is the root
+            List<int[]> gotos = new ArrayList<>();
+            List<List<Integer>> ends = new ArrayList<>();
+            gotos.add(newRow());
+            ends.add(new ArrayList<>());
+
+            for (int t = 0; t < triggers.length; t++) {
+                int state = 0;
+                String phrase = triggers[t].phrase;
+                for (int i = 0; i < phrase.length(); i++) {
+                    int symbol = symbol(phrase.charAt(i));
+                    if (gotos.get(state)[symbol] <= 0) {
+                        gotos.get(state)[symbol] = gotos.size();
+                        gotos.add(newRow());
+                        ends.add(new ArrayList<>());
+                    }
+                    state = gotos.get(state)[symbol];
+                }
+                ends.get(state).add(t);
+            }
+
+            int states = gotos.size();
+            next = new int[states * symbolCount];
+            outputs = new int[states][];
+            int[] fail = new int[states];
+
+            // Breadth first, so a state's failure target is complete before the state itself
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            int[] root = gotos.get(0);
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int child = root[symbol];
+                if (child > 0) {
+                    next[symbol] = child;
+                    fail[child] = 0;
+                    queue.add(child);
+                }
+            }
+            outputs[0] = toArray(ends.get(0));
+
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                List<Integer> out = new ArrayList<>(ends.get(state));
+                for (int t : outputs[fail[state]]) {
+                    out.add(t);
+                }
+                outputs[state] = toArray(out);
+
+                int[] row = gotos.get(state);
+                for (int symbol = 0; symbol < symbolCount; symbol++) {
+                    int child = row[symbol];
+                    if (child > 0) {
+                        next[state * symbolCount + symbol] = child;
+                        fail[child] = next[fail[state] * symbolCount + symbol];
+                        queue.add(child);
+                    } else {
+                        next[state * symbolCount + symbol] = next[fail[state] * symbolCount + symbol];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Collects the triggers matching the message into {@link #matches} and returns their count.
+         */
+        private int scan(String message, ChatMessageType type) {
+            if (++scan == 0) {
+                Arrays.fill(matchedScan, 0);
+                scan = 1;
+            }
+
+            int found = 0;
+            int state = 0;
+            for (int i = 0; i < message.length(); i++) {
+                state = next[state * symbolCount + symbol(message.charAt(i))];
+                for (int t : outputs[state]) {
+                    if (matchedScan[t] != scan && triggers[t].types.contains(type)) {
+                        matchedScan[t] = scan;
+                        matches[found++] = t;
+                    }
+                }
+            }
+            return found;
+        }
+
+        private int symbol(char c) {
+            return c < 128 ? asciiSymbols[c] : otherSymbols.get(c, 0);
+        }
+
+        private int[] newRow() {
+            return new int[symbolCount];
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            int[] array = new int[values.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = values.get(i);
+            }
+            return array;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.RuneLite;
+import net.runelite.client.eventbus.Subscribe;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Small per plugin checkpoints of bot state, e.g. whether a task is in progress, kept in
+ * .runelite/papaya/checkpoints unless {@link #DIRECTORY} is bound, so a bot restarted after a
+ * crash or disconnect can resume where it was. The plugin's session counters are part of its
+ * checkpoint and carried over on restore. Plugins should treat a restored state as a hint and
+ * check it against the world, which may have changed while they were off.
+ *
+ * <p>Tracked plugins are checkpointed every 50 ticks and whenever they ask for it, e.g. on a state
+ * change. A checkpoint is only written when it differs from the last one, on a background thread,
+ * and replaces the file in one move, so a crash leaves either the old or the new checkpoint.
+ */
+@Slf4j
+@Singleton
+public class CheckpointStore {
+    /**
+     * Name of an optional File binding replacing the checkpoint directory, e.g. with a temporary
+     * one for simulated runs.
+     */
+    public static final String DIRECTORY = "papaya.checkpointDirectory";
+
+    static final File CHECKPOINT_DIR = new File(new File(RuneLite.RUNELITE_DIR, "papaya"), "checkpoints");
+
+    private static final int CHECKPOINT_TICKS = 50;
+    private static final String COUNTER_PREFIX = "counter.";
+
+    private final SessionMetrics metrics;
+    private final TickContext tickContext;
+    private final HandlerProfiler profiler;
+
+    private final Map<String, Supplier<Properties>> tracked = new ConcurrentHashMap<>();
+    private final Map<String, Properties> written = new ConcurrentHashMap<>();
+
+    private File directory = CHECKPOINT_DIR;
+    private ExecutorService writer;
+
+    @Inject
+    CheckpointStore(SessionMetrics metrics, TickContext tickContext, HandlerProfiler profiler) {
+        this.metrics = metrics;
+        this.tickContext = tickContext;
+        this.profiler = profiler;
+    }
+
+    @com.google.inject.Inject(optional = true)
+    void setDirectory(@Named(DIRECTORY) File directory) {
+        this.directory = directory;
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        profiler.time(CheckpointStore.class, "onGameTick", () -> {
+            if (tickContext.getTick() % CHECKPOINT_TICKS == 0) {
+                for (String plugin : tracked.keySet()) {
+                    checkpoint(plugin);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the state of the plugin's last checkpoint, empty when there is none, and carries its
+     * counts over to the plugin's counters. Create the counters before restoring.
+     */
+    public Properties restore(String plugin) {
+        Properties checkpoint = new Properties();
+        File file = file(plugin);
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                checkpoint.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Unable to read checkpoint of {}", plugin, e);
+                return new Properties();
+            }
+        }
+
+        for (SessionMetrics.Counter counter : metrics.getCounters()) {
+            String count = checkpoint.getProperty(COUNTER_PREFIX + counter.getName());
+            if (counter.getPlugin().equals(plugin) && count != null) {
+                try {
+                    counter.restore(Long.parseLong(count));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring count {} of {} in checkpoint of {}", count, counter.getName(), plugin);
+                }
+            }
+        }
+        written.put(plugin, checkpoint);
+
+        Properties state = new Properties();
+        for (String key : checkpoint.stringPropertyNames()) {
+            if (!key.startsWith(COUNTER_PREFIX)) {
+                state.setProperty(key, checkpoint.getProperty(key));
+            }
+        }
+        log.debug("Restored checkpoint of {}: {}", plugin, state);
+        return state;
+    }
+
+    /**
+     * Checkpoints the state from the supplier periodically until {@link #untrack(String)}. The
+     * supplier should only read the plugin's own fields, the last checkpoint is taken when the
+     * plugin stops.
+     */
+    public void track(String plugin, Supplier<Properties> state) {
+        tracked.put(plugin, state);
+    }
+
+    /**
+     * Takes a last checkpoint of the plugin and stops tracking it.
+     */
+    public void untrack(String plugin) {
+        checkpoint(plugin);
+        tracked.remove(plugin);
+    }
+
+    /**
+     * Checkpoints the tracked plugin now, e.g. right after it took on a task.
+     */
+    public void checkpoint(String plugin) {
+        Supplier<Properties> state = tracked.get(plugin);
+        if (state == null) {
+            return;
+        }
+
+        Properties checkpoint = new Properties();
+        checkpoint.putAll(state.get());
+        for (SessionMetrics.Counter counter : metrics.getCounters()) {
+            if (counter.getPlugin().equals(plugin)) {
+                checkpoint.setProperty(COUNTER_PREFIX + counter.getName(), Long.toString(counter.get()));
+            }
+        }
+
+        if (checkpoint.equals(written.put(plugin, checkpoint))) {
+            return;
+        }
+        writer().execute(() -> write(plugin, checkpoint));
+    }
+
+    /**
+     * Checkpoints every tracked plugin and lets the pending writes finish in the background.
+     */
+    public synchronized void shutdown() {
+        for (String plugin : tracked.keySet()) {
+            checkpoint(plugin);
+        }
+        if (writer != null) {
+            writer.shutdown();
+            writer = null;
+        }
+    }
+
+    private synchronized ExecutorService writer() {
+        if (writer == null) {
+            writer = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "papaya-checkpoints");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return writer;
+    }
+
+    private void write(String plugin, Properties checkpoint) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            checkpoint.store(out, "Papaya checkpoint of " + plugin);
+            AtomicFiles.write(file(plugin), out.toByteArray());
+        } catch (IOException e) {
+            log.warn("Unable to write checkpoint of {}", plugin, e);
+        }
+    }
+
+    private File file(String plugin) {
+        return new File(directory, plugin + ".properties");
+    }
+}
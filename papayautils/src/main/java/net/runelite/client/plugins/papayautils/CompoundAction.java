@@ -0,0 +1,74 @@
+package net.runelite.client.plugins.papayautils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Menu actions that are sent together in one tick, such as deposit-all followed by withdraw-all
+ * in the bank, each with the condition that shows its effect has happened. Steps whose effect is
+ * already there are skipped, and a step whose menu action cannot be built yet, e.g. because the
+ * item is not in the bank interface, holds back itself and every step after it.
+ *
+ * <p>Run with {@link ScriptRuntime#perform(ActionPriority, CompoundAction, int)}.
+ */
+public final class CompoundAction {
+    private final List<Step> steps = new ArrayList<>();
+
+    public static CompoundAction create() {
+        return new CompoundAction();
+    }
+
+    /**
+     * Adds a step. The intent supplier is called on the client thread when the step is sent and
+     * returns null while the step is not possible.
+     */
+    public CompoundAction then(Supplier<MenuIntent> intent, BooleanSupplier done) {
+        steps.add(new Step(intent, done));
+        return this;
+    }
+
+    boolean isDone() {
+        return countDone() == steps.size();
+    }
+
+    int countDone() {
+        int done = 0;
+        for (Step step : steps) {
+            if (step.done.getAsBoolean()) {
+                done++;
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Returns the actions of the steps still to do, in order, up to the first one not possible.
+     */
+    MenuIntent[] pendingIntents() {
+        List<MenuIntent> intents = new ArrayList<>(steps.size());
+        for (Step step : steps) {
+            if (step.done.getAsBoolean()) {
+                continue;
+            }
+
+            MenuIntent intent = step.intent.get();
+            if (intent == null) {
+                break;
+            }
+            intents.add(intent);
+        }
+        return intents.toArray(new MenuIntent[0]);
+    }
+
+    private static final class Step {
+        private final Supplier<MenuIntent> intent;
+        private final BooleanSupplier done;
+
+        private Step(Supplier<MenuIntent> intent, BooleanSupplier done) {
+            this.intent = intent;
+            this.done = done;
+        }
+    }
+}
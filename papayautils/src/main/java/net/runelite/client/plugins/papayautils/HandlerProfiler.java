@@ -0,0 +1,203 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.RuneLite;
+import net.runelite.client.eventbus.Subscribe;
+
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times the event handlers of papaya plugins. Handlers run their body through
+ * {@link #time(Class, String, Runnable)}; when profiling is off that costs a field read.
+ * Besides a histogram per handler it keeps one of the total handler time per game tick and per
+ * client frame. Nested handlers, e.g. ones run by an event posted from another handler, count
+ * towards those totals only once.
+ */
+@Slf4j
+@Singleton
+public class HandlerProfiler {
+    public static final String GAME_TICK_TOTAL = "Total per game tick";
+    public static final String CLIENT_FRAME_TOTAL = "Total per client frame";
+
+    static final File DUMP_FILE = new File(new File(RuneLite.RUNELITE_DIR, "papaya"), "handler-profile.txt");
+
+    private static final int MAX_DEPTH = 16;
+
+    private final Map<String, LatencyHistogram> handlers = new ConcurrentHashMap<>();
+    private final LatencyHistogram gameTickTotal = new LatencyHistogram();
+    private final LatencyHistogram clientFrameTotal = new LatencyHistogram();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final ClassValue<Map<String, String>> names = new ClassValue<Map<String, String>>() {
+        @Override
+        protected Map<String, String> computeValue(Class<?> owner) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private volatile boolean enabled;
+
+    // Handlers run on the client thread, other threads are timed but not counted in the totals
+    private Thread clientThread;
+    private final long[] allocationStarts = new long[MAX_DEPTH];
+    private int depth;
+    private long tickNanos;
+    private long frameNanos;
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs the body of a handler, timed as owner.method, e.g. InventoryModel.onItemContainerChanged.
+     * Exceptions of the body are passed on, the time up to them is still recorded.
+     */
+    public void time(Class<?> owner, String method, Runnable body) {
+        if (!enabled) {
+            body.run();
+            return;
+        }
+
+        long start = begin();
+        try {
+            body.run();
+        } finally {
+            end(owner, method, start);
+        }
+    }
+
+    private long begin() {
+        if (Thread.currentThread() == clientThread) {
+            if (depth < MAX_DEPTH) {
+                allocationStarts[depth] = allocatedBytes();
+            }
+            depth++;
+        }
+        return System.nanoTime();
+    }
+
+    private void end(Class<?> owner, String method, long start) {
+        long elapsed = System.nanoTime() - start;
+        long allocated = -1;
+
+        if (Thread.currentThread() == clientThread && depth > 0) {
+            depth--;
+            if (depth < MAX_DEPTH && allocationStarts[depth] >= 0) {
+                allocated = allocatedBytes() - allocationStarts[depth];
+            }
+            if (depth == 0) {
+                tickNanos += elapsed;
+                frameNanos += elapsed;
+            }
+        }
+
+        handlers.computeIfAbsent(name(owner, method), h -> new LatencyHistogram()).record(elapsed, allocated);
+    }
+
+    // Cached, so a timed handler allocates nothing beyond what its body does
+    private String name(Class<?> owner, String method) {
+        Map<String, String> methods = names.get(owner);
+        String name = methods.get(method);
+        if (name == null) {
+            name = owner.getSimpleName() + "." + method;
+            methods.put(method, name);
+        }
+        return name;
+    }
+
+    // Registered with priorities above any plugin's, so they run before the handlers of the new tick or frame
+    @Subscribe(priority = 1000)
+    public void onGameTick(GameTick event) {
+        clientThread = Thread.currentThread();
+        if (enabled) {
+            gameTickTotal.record(tickNanos, -1);
+        }
+        tickNanos = 0;
+    }
+
+    @Subscribe(priority = 1000)
+    public void onClientTick(ClientTick event) {
+        clientThread = Thread.currentThread();
+        if (enabled) {
+            clientFrameTotal.record(frameNanos, -1);
+        }
+        frameNanos = 0;
+    }
+
+    public LatencyHistogram getGameTickTotal() {
+        return gameTickTotal;
+    }
+
+    public LatencyHistogram getClientFrameTotal() {
+        return clientFrameTotal;
+    }
+
+    /**
+     * Returns the handlers seen so far, slowest p99 first.
+     */
+    public List<Map.Entry<String, LatencyHistogram>> getHandlers() {
+        List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(handlers.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> e) -> e.getValue().getPercentileNanos(99)).reversed());
+        return entries;
+    }
+
+    public void reset() {
+        handlers.values().forEach(LatencyHistogram::reset);
+        gameTickTotal.reset();
+        clientFrameTotal.reset();
+    }
+
+    /**
+     * Writes every histogram to .runelite/papaya/handler-profile.txt.
+     */
+    public File dump() throws IOException {
+        File parent = DUMP_FILE.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Unable to create " + parent);
+        }
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(DUMP_FILE.toPath(), StandardCharsets.UTF_8))) {
+            out.printf("# Papaya handler profile, %s%n", Instant.now());
+            out.printf("%-50s %10s %10s %10s %10s %10s %14s%n", "handler", "count", "mean us", "p50 us", "p99 us", "max us", "alloc B/call");
+            print(out, GAME_TICK_TOTAL, gameTickTotal);
+            print(out, CLIENT_FRAME_TOTAL, clientFrameTotal);
+            for (Map.Entry<String, LatencyHistogram> entry : getHandlers()) {
+                print(out, entry.getKey(), entry.getValue());
+            }
+        }
+        return DUMP_FILE;
+    }
+
+    private static void print(PrintWriter out, String name, LatencyHistogram histogram) {
+        long count = histogram.getCount();
+        out.printf("%-50s %10d %10.1f %10.1f %10.1f %10.1f %14s%n", name, count,
+                histogram.getMeanNanos() / 1e3, histogram.getPercentileNanos(50) / 1e3,
+                histogram.getPercentileNanos(99) / 1e3, histogram.getMaxNanos() / 1e3,
+                count == 0 || histogram.getAllocatedBytes() == 0 ? "-" : Long.toString(histogram.getAllocatedBytes() / count));
+    }
+
+    private long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,93 @@
+package net.runelite.client.plugins.papayautils;
+
+import com.openosrs.client.ui.overlay.components.table.TableAlignment;
+import com.openosrs.client.ui.overlay.components.table.TableComponent;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LayoutableRenderableEntity;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+import net.runelite.client.util.ColorUtil;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.awt.*;
+import java.util.List;
+import java.util.Map;
+
+@Singleton
+public class HandlerProfilerOverlay extends OverlayPanel {
+    private static final int MAX_ROWS = 10;
+    private static final double GAME_TICK_NANOS = 600e6;
+    private static final Color BACKGROUND_COLOR = ColorUtil.fromHex("#121212"); //Material Dark default
+    private static final Color TITLE_COLOR = ColorUtil.fromHex("#40C4FF");
+
+    private final HandlerProfiler profiler;
+
+    // The panel keeps its children between frames, the tables are only rebuilt once a second
+    private long shownSecond = -1;
+
+    @Inject
+    private HandlerProfilerOverlay(final PapayaUtilsPlugin plugin, final HandlerProfiler profiler)
+    {
+        super(plugin);
+        setPosition(OverlayPosition.TOP_LEFT);
+        setClearChildren(false);
+        this.profiler = profiler;
+
+        panelComponent.setBackgroundColor(BACKGROUND_COLOR);
+        panelComponent.setPreferredSize(new Dimension(380, 0));
+        panelComponent.setBorder(new Rectangle(5, 5, 5, 5));
+        panelComponent.getChildren().add(TitleComponent.builder()
+                .text("Papaya Handler Profile")
+                .color(TITLE_COLOR)
+                .build());
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        if (!profiler.isEnabled())
+        {
+            return null;
+        }
+
+        long second = System.currentTimeMillis() / 1000;
+        if (second != shownSecond)
+        {
+            shownSecond = second;
+            updateTables();
+        }
+        return super.render(graphics);
+    }
+
+    private void updateTables()
+    {
+        LatencyHistogram tick = profiler.getGameTickTotal();
+        LatencyHistogram frame = profiler.getClientFrameTotal();
+
+        TableComponent totals = new TableComponent();
+        totals.setColumnAlignments(TableAlignment.LEFT, TableAlignment.RIGHT);
+        totals.addRow("Tick mean/max:", String.format("%.2f / %.2f ms (%.2f%%)",
+                tick.getMeanNanos() / 1e6, tick.getMaxNanos() / 1e6, tick.getMeanNanos() / GAME_TICK_NANOS * 100));
+        totals.addRow("Frame mean/max:", String.format("%.2f / %.2f ms",
+                frame.getMeanNanos() / 1e6, frame.getMaxNanos() / 1e6));
+
+        TableComponent handlers = new TableComponent();
+        handlers.setColumnAlignments(TableAlignment.LEFT, TableAlignment.RIGHT, TableAlignment.RIGHT, TableAlignment.RIGHT);
+        handlers.addRow("Handler", "p50 us", "p99 us", "max us");
+        List<Map.Entry<String, LatencyHistogram>> entries = profiler.getHandlers();
+        for (Map.Entry<String, LatencyHistogram> entry : entries.subList(0, Math.min(MAX_ROWS, entries.size())))
+        {
+            LatencyHistogram histogram = entry.getValue();
+            handlers.addRow(entry.getKey(),
+                    String.format("%.1f", histogram.getPercentileNanos(50) / 1e3),
+                    String.format("%.1f", histogram.getPercentileNanos(99) / 1e3),
+                    String.format("%.1f", histogram.getMaxNanos() / 1e3));
+        }
+
+        List<LayoutableRenderableEntity> children = panelComponent.getChildren();
+        children.subList(1, children.size()).clear();
+        children.add(totals);
+        children.add(handlers);
+    }
+}
@@ -0,0 +1,186 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.InventoryID;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.eventbus.Subscribe;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Copy of the player's inventory that is only updated from ItemContainerChanged.
+ * Slot sets are returned as bit masks with bit n set for inventory slot n.
+ */
+@Singleton
+public class InventoryModel {
+    public static final int SIZE = 28;
+
+    private static final Item[] EMPTY = new Item[0];
+
+    private final Client client;
+    private final ClientThread clientThread;
+    private final HandlerProfiler profiler;
+
+    private final int[] itemIds = new int[SIZE];
+    private final int[] quantities = new int[SIZE];
+
+    // Item id -> total quantity / slot mask, rebuilt on every change
+    private final IntIntMap counts = new IntIntMap(SIZE);
+    private final IntIntMap slots = new IntIntMap(SIZE);
+
+    private final Map<ItemMatcher, MatcherView> views = new IdentityHashMap<>();
+
+    private int changedSlots;
+    private int version;
+
+    @Inject
+    InventoryModel(Client client, ClientThread clientThread, HandlerProfiler profiler) {
+        this.client = client;
+        this.clientThread = clientThread;
+        this.profiler = profiler;
+        Arrays.fill(itemIds, -1);
+    }
+
+    @Subscribe
+    public void onItemContainerChanged(ItemContainerChanged event) {
+        profiler.time(InventoryModel.class, "onItemContainerChanged", () -> {
+            if (event.getContainerId() == InventoryID.INVENTORY.getId()) {
+                update(event.getItemContainer());
+            }
+        });
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        profiler.time(InventoryModel.class, "onGameStateChanged", () -> {
+            if (event.getGameState() == GameState.LOGIN_SCREEN) {
+                update(null);
+            }
+        });
+    }
+
+    /**
+     * Loads the current inventory. Only needed when the model is started while logged in.
+     */
+    public void rebuild() {
+        clientThread.invoke(() -> update(client.getItemContainer(InventoryID.INVENTORY)));
+    }
+
+    public int getItemId(int slot) {
+        return itemIds[slot];
+    }
+
+    public int getQuantity(int slot) {
+        return quantities[slot];
+    }
+
+    public int getCount(int itemId) {
+        return counts.get(itemId, 0);
+    }
+
+    public int getSlots(int itemId) {
+        return slots.get(itemId, 0);
+    }
+
+    public int getCount(ItemMatcher matcher) {
+        return view(matcher).count;
+    }
+
+    public int getSlots(ItemMatcher matcher) {
+        return view(matcher).slots;
+    }
+
+    /**
+     * Returns the first slot holding an item accepted by the matcher, or -1.
+     */
+    public int getFirstSlot(ItemMatcher matcher) {
+        int mask = view(matcher).slots;
+        return mask == 0 ? -1 : Integer.numberOfTrailingZeros(mask);
+    }
+
+    public boolean contains(ItemMatcher matcher) {
+        return view(matcher).slots != 0;
+    }
+
+    public int getFreeSlots() {
+        return Integer.bitCount(getSlots(-1));
+    }
+
+    /**
+     * Slots that changed in the most recent inventory update.
+     */
+    public int getChangedSlots() {
+        return changedSlots;
+    }
+
+    /**
+     * Incremented every time the inventory contents change.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    private MatcherView view(ItemMatcher matcher) {
+        MatcherView view = views.computeIfAbsent(matcher, m -> new MatcherView());
+        if (view.version != version) {
+            int mask = 0;
+            int count = 0;
+            for (int slot = 0; slot < SIZE; slot++) {
+                if (matcher.matches(itemIds[slot])) {
+                    mask |= 1 << slot;
+                    count += quantities[slot];
+                }
+            }
+            view.slots = mask;
+            view.count = count;
+            view.version = version;
+        }
+        return view;
+    }
+
+    private void update(ItemContainer container) {
+        Item[] items = container == null ? EMPTY : container.getItems();
+
+        int changed = 0;
+        for (int slot = 0; slot < SIZE; slot++) {
+            Item item = slot < items.length ? items[slot] : null;
+            int id = item == null ? -1 : item.getId();
+            int quantity = id == -1 ? 0 : item.getQuantity();
+
+            if (itemIds[slot] != id || quantities[slot] != quantity) {
+                itemIds[slot] = id;
+                quantities[slot] = quantity;
+                changed |= 1 << slot;
+            }
+        }
+
+        changedSlots = changed;
+        if (changed == 0) {
+            return;
+        }
+
+        version++;
+        counts.clear();
+        slots.clear();
+        for (int slot = 0; slot < SIZE; slot++) {
+            int id = itemIds[slot];
+            counts.add(id, quantities[slot]);
+            slots.put(id, slots.get(id, 0) | 1 << slot);
+        }
+    }
+
+    private static final class MatcherView {
+        private int version = -1;
+        private int slots;
+        private int count;
+    }
+}
@@ -0,0 +1,50 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.Client;
+import net.runelite.api.ItemComposition;
+
+import java.util.function.Predicate;
+
+/**
+ * Matches item ids against a name rule. Each id is resolved through its item definition the first
+ * time it is seen, after that a match is a primitive set lookup.
+ */
+public class ItemMatcher {
+    private final Client client;
+    private final Predicate<String> namePredicate;
+
+    private final IntSet matching = new IntSet();
+    private final IntSet rejected = new IntSet();
+
+    ItemMatcher(Client client, Predicate<String> namePredicate) {
+        this.client = client;
+        this.namePredicate = namePredicate;
+    }
+
+    /**
+     * Must be called on the client thread the first time an id is seen.
+     */
+    public boolean matches(int itemId) {
+        if (itemId < 0) {
+            return false;
+        }
+        if (matching.contains(itemId)) {
+            return true;
+        }
+        if (rejected.contains(itemId)) {
+            return false;
+        }
+
+        ItemComposition definition = client.getItemDefinition(itemId);
+        String name = definition == null ? null : definition.getName();
+        boolean matches = name != null && namePredicate.test(name.toLowerCase());
+
+        (matches ? matching : rejected).add(itemId);
+        return matches;
+    }
+
+    void invalidateAll() {
+        matching.clear();
+        rejected.clear();
+    }
+}
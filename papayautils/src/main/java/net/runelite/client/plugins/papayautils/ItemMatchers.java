@@ -0,0 +1,82 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.client.eventbus.Subscribe;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates and caches {@link ItemMatcher}s. Item names do not change when a definition is decoded
+ * again, so resolved ids are only dropped on logout.
+ */
+@Singleton
+public class ItemMatchers {
+    private final Client client;
+    private final HandlerProfiler profiler;
+    private final Map<String, ItemMatcher> matchers = new HashMap<>();
+
+    @Inject
+    ItemMatchers(Client client, HandlerProfiler profiler) {
+        this.client = client;
+        this.profiler = profiler;
+    }
+
+    /**
+     * Matches items whose name contains any of the fragments, ignoring case.
+     */
+    public ItemMatcher nameContains(String... fragments) {
+        String[] lowered = lowerCase(fragments);
+        return matchers.computeIfAbsent("contains:" + Arrays.toString(lowered), k -> new ItemMatcher(client, name -> {
+            for (String fragment : lowered) {
+                if (name.contains(fragment)) {
+                    return true;
+                }
+            }
+            return false;
+        }));
+    }
+
+    /**
+     * Matches items whose name equals any of the names, ignoring case.
+     */
+    public ItemMatcher nameEquals(String... names) {
+        String[] lowered = lowerCase(names);
+        return matchers.computeIfAbsent("equals:" + Arrays.toString(lowered), k -> new ItemMatcher(client, name -> {
+            for (String n : lowered) {
+                if (name.equals(n)) {
+                    return true;
+                }
+            }
+            return false;
+        }));
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        profiler.time(ItemMatchers.class, "onGameStateChanged", () -> {
+            if (event.getGameState() == GameState.LOGIN_SCREEN) {
+                invalidateAll();
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        for (ItemMatcher matcher : matchers.values()) {
+            matcher.invalidateAll();
+        }
+    }
+
+    private static String[] lowerCase(String[] values) {
+        String[] lowered = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            lowered[i] = values[i].toLowerCase();
+        }
+        return lowered;
+    }
+}
@@ -0,0 +1,108 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.events.ClientTick;
+import net.runelite.client.eventbus.Subscribe;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects the menu actions papaya plugins want to perform and dispatches them together on the
+ * next client tick. Identical submissions are only dispatched once per game tick, and of the
+ * exclusive ones only the highest priority (latest among equals) is sent, as a later world
+ * interaction would overwrite an earlier one anyway.
+ */
+@Slf4j
+@Singleton
+public class MenuActionDispatcher {
+    private static final Comparator<Submission> BY_PRIORITY = Comparator.comparingInt(s -> s.priority.ordinal());
+
+    private final Client client;
+    private final HandlerProfiler profiler;
+
+    private final List<Submission> pending = new ArrayList<>();
+    private final List<List<MenuIntent>> dispatched = new ArrayList<>();
+    private ActionPriority dispatchedExclusive;
+    private int dispatchTick = -1;
+
+    @Inject
+    MenuActionDispatcher(Client client, HandlerProfiler profiler) {
+        this.client = client;
+        this.profiler = profiler;
+    }
+
+    public void submit(ActionPriority priority, String option, String target, int identifier, int opcode, int param0, int param1) {
+        submit(priority, MenuIntent.of(option, target, identifier, opcode, param0, param1));
+    }
+
+    /**
+     * Submits steps that are dispatched back-to-back in the given order, or not at all.
+     */
+    public void submit(ActionPriority priority, MenuIntent... steps) {
+        pending.add(new Submission(priority, Arrays.asList(steps)));
+    }
+
+    @Subscribe
+    public void onClientTick(ClientTick event) {
+        profiler.time(MenuActionDispatcher.class, "onClientTick", () -> {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            int tick = client.getTickCount();
+            if (tick != dispatchTick) {
+                dispatchTick = tick;
+                dispatched.clear();
+                dispatchedExclusive = null;
+            }
+
+            pending.sort(BY_PRIORITY);
+
+            Submission exclusive = null;
+            for (Submission submission : pending) {
+                if (submission.priority.isExclusive() && (exclusive == null || submission.priority == exclusive.priority)) {
+                    exclusive = submission;
+                }
+            }
+            if (exclusive != null && dispatchedExclusive != null && dispatchedExclusive.ordinal() < exclusive.priority.ordinal()) {
+                exclusive = null;
+            }
+
+            for (Submission submission : pending) {
+                if (submission.priority.isExclusive() && submission != exclusive) {
+                    log.debug("Dropping superseded {} action {}", submission.priority, submission.steps);
+                    continue;
+                }
+                if (dispatched.contains(submission.steps)) {
+                    continue;
+                }
+
+                for (MenuIntent step : submission.steps) {
+                    client.invokeMenuAction(step.getOption(), step.getTarget(), step.getIdentifier(), step.getOpcode(),
+                            step.getParam0(), step.getParam1());
+                }
+                dispatched.add(submission.steps);
+                if (submission == exclusive) {
+                    dispatchedExclusive = submission.priority;
+                }
+            }
+            pending.clear();
+        });
+    }
+
+    private static final class Submission {
+        private final ActionPriority priority;
+        private final List<MenuIntent> steps;
+
+        private Submission(ActionPriority priority, List<MenuIntent> steps) {
+            this.priority = priority;
+            this.steps = steps;
+        }
+    }
+}
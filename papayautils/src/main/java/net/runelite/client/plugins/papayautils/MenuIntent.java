@@ -0,0 +1,20 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.Value;
+
+/**
+ * The arguments of a single {@code Client#invokeMenuAction} call.
+ */
+@Value
+public class MenuIntent {
+    String option;
+    String target;
+    int identifier;
+    int opcode;
+    int param0;
+    int param1;
+
+    public static MenuIntent of(String option, String target, int identifier, int opcode, int param0, int param1) {
+        return new MenuIntent(option, target, identifier, opcode, param0, param1);
+    }
+}
@@ -0,0 +1,79 @@
+package net.runelite.client.plugins.papayautils;
+
+import com.openosrs.client.ui.overlay.components.table.TableAlignment;
+import com.openosrs.client.ui.overlay.components.table.TableComponent;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+import net.runelite.client.util.ColorUtil;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.awt.*;
+import java.util.List;
+
+@Singleton
+public class MetricsOverlay extends OverlayPanel {
+    private static final Color BACKGROUND_COLOR = ColorUtil.fromHex("#121212"); //Material Dark default
+    private static final Color TITLE_COLOR = ColorUtil.fromHex("#40C4FF");
+
+    private final SessionMetrics metrics;
+
+    // The panel keeps its children between frames, the table is only rebuilt once a second
+    private long shownSecond = -1;
+
+    @Inject
+    private MetricsOverlay(final PapayaUtilsPlugin plugin, final SessionMetrics metrics)
+    {
+        super(plugin);
+        setPosition(OverlayPosition.TOP_LEFT);
+        setClearChildren(false);
+        this.metrics = metrics;
+
+        panelComponent.setBackgroundColor(BACKGROUND_COLOR);
+        panelComponent.setPreferredSize(new Dimension(220, 0));
+        panelComponent.setBorder(new Rectangle(5, 5, 5, 5));
+        panelComponent.getChildren().add(TitleComponent.builder()
+                .text("Papaya Session")
+                .color(TITLE_COLOR)
+                .build());
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        List<SessionMetrics.Counter> counters = metrics.getCounters();
+        if (counters.isEmpty())
+        {
+            return null;
+        }
+
+        long second = System.currentTimeMillis() / 1000;
+        if (second != shownSecond)
+        {
+            shownSecond = second;
+            updateTable(counters);
+        }
+        return super.render(graphics);
+    }
+
+    private void updateTable(List<SessionMetrics.Counter> counters)
+    {
+        TableComponent tableComponent = new TableComponent();
+        tableComponent.setColumnAlignments(TableAlignment.LEFT, TableAlignment.RIGHT, TableAlignment.RIGHT);
+        for (SessionMetrics.Counter counter : counters)
+        {
+            tableComponent.addRow(counter.getHelp() + ":", Long.toString(counter.get()),
+                    String.format("%.1f/h", counter.getPerHour()));
+        }
+
+        if (panelComponent.getChildren().size() > 1)
+        {
+            panelComponent.getChildren().set(1, tableComponent);
+        }
+        else
+        {
+            panelComponent.getChildren().add(tableComponent);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.Actor;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.NPC;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.NpcChanged;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.util.Text;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live NPCs keyed by id and by standardized name, maintained from spawn, despawn and
+ * transform events.
+ */
+@Singleton
+public class NpcIndex {
+    private final Client client;
+    private final ClientThread clientThread;
+    private final TickContext tickContext;
+    private final Reachability reachability;
+    private final HandlerProfiler profiler;
+
+    private final Map<Integer, List<NPC>> npcsById = new HashMap<>();
+    private final Map<String, List<NPC>> npcsByName = new HashMap<>();
+    private final Map<NPC, Indexed> indexed = new IdentityHashMap<>();
+
+    // Name fragment as queried -> buckets of the standardized names containing it
+    private final Map<String, List<List<NPC>>> fragmentBuckets = new HashMap<>();
+
+    @Inject
+    NpcIndex(Client client, ClientThread clientThread, TickContext tickContext, Reachability reachability,
+             HandlerProfiler profiler) {
+        this.client = client;
+        this.clientThread = clientThread;
+        this.tickContext = tickContext;
+        this.reachability = reachability;
+        this.profiler = profiler;
+    }
+
+    @Subscribe
+    public void onNpcSpawned(NpcSpawned event) {
+        profiler.time(NpcIndex.class, "onNpcSpawned", () -> {
+            add(event.getNpc());
+        });
+    }
+
+    @Subscribe
+    public void onNpcDespawned(NpcDespawned event) {
+        profiler.time(NpcIndex.class, "onNpcDespawned", () -> {
+            remove(event.getNpc());
+        });
+    }
+
+    @Subscribe
+    public void onNpcChanged(NpcChanged event) {
+        profiler.time(NpcIndex.class, "onNpcChanged", () -> {
+            remove(event.getNpc());
+            add(event.getNpc());
+        });
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        profiler.time(NpcIndex.class, "onGameStateChanged", () -> {
+            if (event.getGameState() == GameState.LOGIN_SCREEN || event.getGameState() == GameState.HOPPING) {
+                clear();
+            }
+        });
+    }
+
+    /**
+     * Loads the NPCs that are already around. Only needed when the index is started while logged in.
+     */
+    public void rebuild() {
+        clientThread.invoke(() -> {
+            clear();
+            for (NPC npc : client.getNpcs()) {
+                add(npc);
+            }
+        });
+    }
+
+    public void clear() {
+        npcsById.clear();
+        npcsByName.clear();
+        indexed.clear();
+        fragmentBuckets.clear();
+    }
+
+    public List<NPC> getNpcs(int id) {
+        return npcsById.getOrDefault(id, Collections.emptyList());
+    }
+
+    /**
+     * Counts the live NPCs whose name contains the fragment, ignoring case.
+     */
+    public int count(String nameFragment) {
+        int count = 0;
+        for (List<NPC> bucket : getBuckets(nameFragment)) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    public boolean isNamed(Actor actor, String nameFragment) {
+        Indexed entry = indexed.get(actor);
+        if (entry == null) {
+            return false;
+        }
+
+        for (List<NPC> bucket : getBuckets(nameFragment)) {
+            if (bucket == entry.bucket) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns any live NPC whose name contains the fragment, or null.
+     */
+    public NPC getFirst(String nameFragment) {
+        for (List<NPC> bucket : getBuckets(nameFragment)) {
+            if (!bucket.isEmpty()) {
+                return bucket.get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the NPC with the given id that takes the fewest steps to walk up to, or null.
+     */
+    public NPC getNearest(int id) {
+        return nearest(getNpcs(id), null);
+    }
+
+    public NPC getNearest(String nameFragment) {
+        NPC nearest = null;
+        for (List<NPC> bucket : getBuckets(nameFragment)) {
+            nearest = nearest(bucket, nearest);
+        }
+        return nearest;
+    }
+
+    private NPC nearest(List<NPC> npcs, NPC best) {
+        if (!tickContext.hasPlayer() || npcs.isEmpty()) {
+            return best;
+        }
+
+        int bestDistance = best == null ? Reachability.UNREACHABLE : reachability.getInteractCost(best);
+        for (NPC npc : npcs) {
+            int distance = reachability.getInteractCost(npc);
+            if (distance < bestDistance) {
+                best = npc;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private List<List<NPC>> getBuckets(String nameFragment) {
+        return fragmentBuckets.computeIfAbsent(nameFragment, f -> {
+            String fragment = Text.standardize(f);
+            List<List<NPC>> buckets = new ArrayList<>();
+            for (Map.Entry<String, List<NPC>> entry : npcsByName.entrySet()) {
+                if (entry.getKey().contains(fragment)) {
+                    buckets.add(entry.getValue());
+                }
+            }
+            return buckets;
+        });
+    }
+
+    private void add(NPC npc) {
+        String name = npc.getName() == null ? "" : Text.standardize(npc.getName());
+        npcsById.computeIfAbsent(npc.getId(), id -> new ArrayList<>()).add(npc);
+
+        List<NPC> named = npcsByName.get(name);
+        if (named == null) {
+            named = new ArrayList<>();
+            npcsByName.put(name, named);
+
+            for (Map.Entry<String, List<List<NPC>>> entry : fragmentBuckets.entrySet()) {
+                if (name.contains(Text.standardize(entry.getKey()))) {
+                    entry.getValue().add(named);
+                }
+            }
+        }
+        named.add(npc);
+        indexed.put(npc, new Indexed(npc.getId(), named));
+    }
+
+    private void remove(NPC npc) {
+        Indexed entry = indexed.remove(npc);
+        if (entry == null) {
+            return;
+        }
+
+        // The NPC may have transformed since it was indexed, so use the id it was stored under
+        List<NPC> withId = npcsById.get(entry.id);
+        if (withId != null) {
+            withId.remove(npc);
+        }
+        entry.bucket.remove(npc);
+    }
+
+    private static final class Indexed {
+        private final int id;
+        private final List<NPC> bucket;
+
+        private Indexed(int id, List<NPC> bucket) {
+            this.id = id;
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.client.config.Button;
+import net.runelite.client.config.Config;
+import net.runelite.client.config.ConfigGroup;
+import net.runelite.client.config.ConfigItem;
+
+@ConfigGroup(PapayaUtilsConfig.GROUP)
+public interface PapayaUtilsConfig extends Config {
+    String GROUP = "papayautils";
+
+    @ConfigItem(
+            keyName = "profileHandlers",
+            name = "Profile Handlers",
+            description = "Time every event handler of the papaya plugins",
+            position = 1
+    )
+    default boolean profileHandlers() {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "profilerOverlay",
+            name = "Profiler Overlay",
+            description = "Show the slowest handlers and the time papaya plugins take per tick and frame",
+            position = 2
+    )
+    default boolean profilerOverlay() {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "dumpProfile",
+            name = "Dump Profile",
+            description = "Writes the handler timings to .runelite/papaya/handler-profile.txt",
+            position = 3
+    )
+    default Button dumpProfile() {
+        return new Button();
+    }
+
+    @ConfigItem(
+            keyName = "resetProfile",
+            name = "Reset Profile",
+            description = "Clears the handler timings",
+            position = 4
+    )
+    default Button resetProfile() {
+        return new Button();
+    }
+
+    @ConfigItem(
+            keyName = "metricsOverlay",
+            name = "Metrics Overlay",
+            description = "Show the session counters of the papaya plugins, such as kills, with their rate per hour",
+            position = 5
+    )
+    default boolean metricsOverlay() {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "exportMetrics",
+            name = "Export Metrics",
+            description = "Write the session counters every 30 seconds to .runelite/papaya/metrics.prom in the Prometheus text format",
+            position = 6
+    )
+    default boolean exportMetrics() {
+        return false;
+    }
+}
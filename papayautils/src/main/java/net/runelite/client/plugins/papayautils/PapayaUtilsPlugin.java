@@ -0,0 +1,194 @@
+package net.runelite.client.plugins.papayautils;
+
+import com.google.inject.Provides;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.events.ConfigButtonClicked;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.eventbus.EventBus;
+import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
+import net.runelite.client.plugins.Plugin;
+import net.runelite.client.plugins.PluginDescriptor;
+import net.runelite.client.ui.overlay.OverlayManager;
+import org.pf4j.Extension;
+
+import javax.inject.Inject;
+import java.io.IOException;
+
+@Extension
+@PluginDescriptor(
+        name = "Papaya Utils",
+        description = "Papaya - Shared utilities for papaya plugins",
+        tags = {"papaya"}
+)
+@Slf4j
+public class PapayaUtilsPlugin extends Plugin {
+    @Inject
+    private EventBus eventBus;
+
+    @Inject
+    private PapayaUtilsConfig config;
+
+    @Inject
+    private OverlayManager overlayManager;
+
+    @Inject
+    private HandlerProfiler handlerProfiler;
+
+    @Inject
+    private HandlerProfilerOverlay handlerProfilerOverlay;
+
+    @Inject
+    private SessionMetrics sessionMetrics;
+
+    @Inject
+    private MetricsOverlay metricsOverlay;
+
+    @Inject
+    private TickContext tickContext;
+
+    @Inject
+    private SceneObjectIndex sceneObjectIndex;
+
+    @Inject
+    private ItemMatchers itemMatchers;
+
+    @Inject
+    private InventoryModel inventoryModel;
+
+    @Inject
+    private NpcIndex npcIndex;
+
+    @Inject
+    private MenuActionDispatcher menuActionDispatcher;
+
+    @Inject
+    private ProjectilePrayerEngine projectilePrayerEngine;
+
+    @Inject
+    private WidgetIndex widgetIndex;
+
+    @Inject
+    private Reachability reachability;
+
+    @Inject
+    private ChatTriggers chatTriggers;
+
+    @Inject
+    private ActionPlanner actionPlanner;
+
+    @Inject
+    private ScriptRuntime scriptRuntime;
+
+    @Inject
+    private CheckpointStore checkpointStore;
+
+    @Provides
+    PapayaUtilsConfig provideConfig(ConfigManager configManager)
+    {
+        return configManager.getConfig(PapayaUtilsConfig.class);
+    }
+
+    @Override
+    protected void startUp() {
+        handlerProfiler.setEnabled(config.profileHandlers());
+        eventBus.register(handlerProfiler);
+        if (config.profilerOverlay()) {
+            overlayManager.add(handlerProfilerOverlay);
+        }
+        if (config.metricsOverlay()) {
+            overlayManager.add(metricsOverlay);
+        }
+        if (config.exportMetrics()) {
+            sessionMetrics.startExport();
+        }
+
+        eventBus.register(tickContext);
+        eventBus.register(sceneObjectIndex);
+        eventBus.register(itemMatchers);
+        eventBus.register(inventoryModel);
+        eventBus.register(npcIndex);
+        eventBus.register(menuActionDispatcher);
+        eventBus.register(projectilePrayerEngine);
+        eventBus.register(widgetIndex);
+        eventBus.register(reachability);
+        eventBus.register(chatTriggers);
+        eventBus.register(scriptRuntime);
+        eventBus.register(checkpointStore);
+        sceneObjectIndex.rebuild();
+        inventoryModel.rebuild();
+        npcIndex.rebuild();
+    }
+
+    @Override
+    protected void shutDown() {
+        eventBus.unregister(sceneObjectIndex);
+        eventBus.unregister(itemMatchers);
+        eventBus.unregister(inventoryModel);
+        eventBus.unregister(npcIndex);
+        eventBus.unregister(menuActionDispatcher);
+        eventBus.unregister(projectilePrayerEngine);
+        eventBus.unregister(widgetIndex);
+        eventBus.unregister(reachability);
+        eventBus.unregister(chatTriggers);
+        eventBus.unregister(scriptRuntime);
+        eventBus.unregister(checkpointStore);
+        eventBus.unregister(tickContext);
+        sceneObjectIndex.clear();
+        npcIndex.clear();
+        actionPlanner.shutdown();
+        checkpointStore.shutdown();
+
+        overlayManager.remove(metricsOverlay);
+        sessionMetrics.stopExport();
+
+        overlayManager.remove(handlerProfilerOverlay);
+        eventBus.unregister(handlerProfiler);
+        handlerProfiler.setEnabled(false);
+    }
+
+    @Subscribe
+    private void onConfigChanged(ConfigChanged event) {
+        if (!event.getGroup().equals(PapayaUtilsConfig.GROUP)) {
+            return;
+        }
+
+        handlerProfiler.setEnabled(config.profileHandlers());
+        if (event.getKey().equals("profilerOverlay")) {
+            if (config.profilerOverlay()) {
+                overlayManager.add(handlerProfilerOverlay);
+            } else {
+                overlayManager.remove(handlerProfilerOverlay);
+            }
+        } else if (event.getKey().equals("metricsOverlay")) {
+            if (config.metricsOverlay()) {
+                overlayManager.add(metricsOverlay);
+            } else {
+                overlayManager.remove(metricsOverlay);
+            }
+        } else if (event.getKey().equals("exportMetrics")) {
+            if (config.exportMetrics()) {
+                sessionMetrics.startExport();
+            } else {
+                sessionMetrics.stopExport();
+            }
+        }
+    }
+
+    @Subscribe
+    private void onConfigButtonClicked(ConfigButtonClicked event) {
+        if (!event.getGroup().equals(PapayaUtilsConfig.GROUP)) {
+            return;
+        }
+
+        if (event.getKey().equals("dumpProfile")) {
+            try {
+                log.info("Wrote handler profile to {}", handlerProfiler.dump());
+            } catch (IOException e) {
+                log.warn("Unable to write handler profile", e);
+            }
+        } else if (event.getKey().equals("resetProfile")) {
+            handlerProfiler.reset();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.CollisionDataFlag;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search over a plane's collision flags from one tile, following the movement
+ * rules of the game's pathfinder. The buffers are reused between searches, so an instance
+ * belongs to one thread.
+ */
+final class PathSearch {
+    static final int SIZE = 104;
+
+    // Any path in the scene is shorter than this
+    static final int UNREACHABLE_OFFSET = SIZE * SIZE;
+
+    private static final int BLOCKED = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+
+    private final int[] distances = new int[SIZE * SIZE];
+    private final int[] stamps = new int[SIZE * SIZE];
+    private final int[] queue = new int[SIZE * SIZE];
+    private int stamp;
+
+    private int originX;
+    private int originY;
+
+    void search(int[][] flags, int startX, int startY) {
+        originX = startX;
+        originY = startY;
+
+        // Bumping the stamp resets every distance without touching the buffer
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+
+        int head = 0;
+        int tail = 0;
+        visit(startX, startY, 0);
+        queue[tail++] = startX * SIZE + startY;
+
+        while (head < tail) {
+            int index = queue[head++];
+            int x = index / SIZE;
+            int y = index % SIZE;
+            int next = distances[index] + 1;
+
+            boolean west = x > 0 && (flags[x - 1][y] & (BLOCKED | CollisionDataFlag.BLOCK_MOVEMENT_EAST)) == 0;
+            boolean east = x < SIZE - 1 && (flags[x + 1][y] & (BLOCKED | CollisionDataFlag.BLOCK_MOVEMENT_WEST)) == 0;
+            boolean south = y > 0 && (flags[x][y - 1] & (BLOCKED | CollisionDataFlag.BLOCK_MOVEMENT_NORTH)) == 0;
+            boolean north = y < SIZE - 1 && (flags[x][y + 1] & (BLOCKED | CollisionDataFlag.BLOCK_MOVEMENT_SOUTH)) == 0;
+
+            if (west) {
+                tail = enqueue(x - 1, y, next, tail);
+            }
+            if (east) {
+                tail = enqueue(x + 1, y, next, tail);
+            }
+            if (south) {
+                tail = enqueue(x, y - 1, next, tail);
+            }
+            if (north) {
+                tail = enqueue(x, y + 1, next, tail);
+            }
+
+            // Diagonal steps need both orthogonal steps open, like the game's own pathfinder
+            if (west && south && (flags[x - 1][y - 1] & (BLOCKED | CollisionDataFlag.BLOCK_MOVEMENT_NORTH
+                    | CollisionDataFlag.BLOCK_MOVEMENT_EAST | CollisionDataFlag.BLOCK_MOVEMENT_NORTH_EAST)) == 0) {
+                tail = enqueue(x - 1, y - 1, next, tail);
+            }
+            if (east && south && (flags[x + 1][y - 1] & (BLOCKED | CollisionDataFlag.BLOCK_MOVEMENT_NORTH
+                    | CollisionDataFlag.BLOCK_MOVEMENT_WEST | CollisionDataFlag.BLOCK_MOVEMENT_NORTH_WEST)) == 0) {
+                tail = enqueue(x + 1, y - 1, next, tail);
+            }
+            if (west && north && (flags[x - 1][y + 1] & (BLOCKED | CollisionDataFlag.BLOCK_MOVEMENT_SOUTH
+                    | CollisionDataFlag.BLOCK_MOVEMENT_EAST | CollisionDataFlag.BLOCK_MOVEMENT_SOUTH_EAST)) == 0) {
+                tail = enqueue(x - 1, y + 1, next, tail);
+            }
+            if (east && north && (flags[x + 1][y + 1] & (BLOCKED | CollisionDataFlag.BLOCK_MOVEMENT_SOUTH
+                    | CollisionDataFlag.BLOCK_MOVEMENT_WEST | CollisionDataFlag.BLOCK_MOVEMENT_SOUTH_WEST)) == 0) {
+                tail = enqueue(x + 1, y + 1, next, tail);
+            }
+        }
+    }
+
+    private int enqueue(int x, int y, int distance, int tail) {
+        int index = x * SIZE + y;
+        if (stamps[index] == stamp) {
+            return tail;
+        }
+        visit(x, y, distance);
+        queue[tail] = index;
+        return tail + 1;
+    }
+
+    private void visit(int x, int y, int distance) {
+        int index = x * SIZE + y;
+        stamps[index] = stamp;
+        distances[index] = distance;
+    }
+
+    /**
+     * Returns the path length from the start tile, or -1 when it cannot be reached.
+     */
+    int distance(int x, int y) {
+        int index = x * SIZE + y;
+        return stamps[index] == stamp ? distances[index] : -1;
+    }
+
+    /**
+     * Returns the path length to a tile next to the given area from which what occupies it can be
+     * used, or -1 when there is none.
+     */
+    int interactDistance(int[][] flags, int minX, int minY, int maxX, int maxY) {
+        // The player may already stand inside, e.g. on a walkable object
+        if (minX <= originX && originX <= maxX && minY <= originY && originY <= maxY) {
+            return 0;
+        }
+
+        // Objects are used from an orthogonally adjacent tile without a wall towards the object
+        int best = Integer.MAX_VALUE;
+        for (int x = minX; x <= maxX; x++) {
+            best = Math.min(best, adjacent(flags, x, minY - 1, CollisionDataFlag.BLOCK_MOVEMENT_NORTH));
+            best = Math.min(best, adjacent(flags, x, maxY + 1, CollisionDataFlag.BLOCK_MOVEMENT_SOUTH));
+        }
+        for (int y = minY; y <= maxY; y++) {
+            best = Math.min(best, adjacent(flags, minX - 1, y, CollisionDataFlag.BLOCK_MOVEMENT_EAST));
+            best = Math.min(best, adjacent(flags, maxX + 1, y, CollisionDataFlag.BLOCK_MOVEMENT_WEST));
+        }
+        return best == Integer.MAX_VALUE ? -1 : best;
+    }
+
+    private int adjacent(int[][] flags, int x, int y, int wallTowardsTarget) {
+        if (!inScene(x, y) || (flags[x][y] & wallTowardsTarget) != 0) {
+            return Integer.MAX_VALUE;
+        }
+
+        int distance = distance(x, y);
+        return distance >= 0 ? distance : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Chebyshev distance from a tile to the nearest tile of an area.
+     */
+    static int straightDistance(int x, int y, int minX, int minY, int maxX, int maxY) {
+        int dx = x < minX ? minX - x : x > maxX ? x - maxX : 0;
+        int dy = y < minY ? minY - y : y > maxY ? y - maxY : 0;
+        return Math.max(dx, dy);
+    }
+
+    static boolean inScene(int x, int y) {
+        return x >= 0 && y >= 0 && x < SIZE && y < SIZE;
+    }
+}
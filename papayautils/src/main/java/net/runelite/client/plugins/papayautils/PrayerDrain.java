@@ -0,0 +1,93 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.Client;
+import net.runelite.api.Prayer;
+
+/**
+ * Prayer point drain as done by the game. Every tick the drain effects of the active prayers are
+ * added to a counter, and a point is lost each time the counter exceeds the drain resistance of
+ * 60 plus 2 per point of prayer bonus.
+ */
+public final class PrayerDrain {
+    private static final Prayer[] PRAYERS = Prayer.values();
+
+    private PrayerDrain() {
+    }
+
+    public static int getDrainEffect(Prayer prayer) {
+        switch (prayer) {
+            case THICK_SKIN:
+            case BURST_OF_STRENGTH:
+            case CLARITY_OF_THOUGHT:
+            case SHARP_EYE:
+            case MYSTIC_WILL:
+            case RAPID_RESTORE:
+                return 1;
+            case RAPID_HEAL:
+            case PROTECT_ITEM:
+            case PRESERVE:
+                return 2;
+            case RETRIBUTION:
+                return 3;
+            case ROCK_SKIN:
+            case SUPERHUMAN_STRENGTH:
+            case IMPROVED_REFLEXES:
+            case HAWK_EYE:
+            case MYSTIC_LORE:
+            case REDEMPTION:
+                return 6;
+            case STEEL_SKIN:
+            case ULTIMATE_STRENGTH:
+            case INCREDIBLE_REFLEXES:
+            case PROTECT_FROM_MAGIC:
+            case PROTECT_FROM_MISSILES:
+            case PROTECT_FROM_MELEE:
+            case EAGLE_EYE:
+            case MYSTIC_MIGHT:
+                return 12;
+            case SMITE:
+                return 18;
+            case CHIVALRY:
+            case PIETY:
+            case RIGOUR:
+            case AUGURY:
+                return 24;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Sums the drain effects of the active prayers. Must be called on the client thread.
+     */
+    public static int getDrainEffect(Client client) {
+        int effect = 0;
+        for (Prayer prayer : PRAYERS) {
+            if (client.isPrayerActive(prayer)) {
+                effect += getDrainEffect(prayer);
+            }
+        }
+        return effect;
+    }
+
+    public static int getResistance(int prayerBonus) {
+        return Math.max(1, 60 + 2 * prayerBonus);
+    }
+
+    /**
+     * Returns the fewest ticks in which the given number of points can be drained, or
+     * Integer.MAX_VALUE when nothing drains. The counter is assumed to be just short of the
+     * resistance, as its actual value is not known, so the estimate is never late.
+     */
+    public static int getTicksToDrain(int points, int drainEffect, int prayerBonus) {
+        if (points <= 0) {
+            return 0;
+        }
+        if (drainEffect <= 0) {
+            return Integer.MAX_VALUE;
+        }
+
+        long ticks = (long) (points - 1) * getResistance(prayerBonus) / drainEffect + 1;
+        return (int) Math.min(ticks, Integer.MAX_VALUE);
+    }
+}
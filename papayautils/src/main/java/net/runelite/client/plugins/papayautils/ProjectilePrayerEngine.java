@@ -0,0 +1,213 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Actor;
+import net.runelite.api.Client;
+import net.runelite.api.MenuAction;
+import net.runelite.api.Prayer;
+import net.runelite.api.Projectile;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ProjectileSpawned;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.RuneLite;
+import net.runelite.client.eventbus.Subscribe;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Predicts on which tick incoming projectiles land and switches protection prayers so the right
+ * one is active exactly on each impact tick. Projectile to prayer tables are loaded per profile
+ * from projectile_prayers.properties.
+ */
+@Slf4j
+@Singleton
+public class ProjectilePrayerEngine {
+    private static final String PROFILE_FILE = "projectile_prayers.properties";
+    private static final File USER_PROFILE_FILE = new File(new File(RuneLite.RUNELITE_DIR, "papaya"), PROFILE_FILE);
+
+    private static final int CYCLES_PER_TICK = 30;
+    private static final int MAX_PENDING = 32;
+
+    private final Client client;
+    private final MenuActionDispatcher dispatcher;
+    private final TickContext tickContext;
+    private final HandlerProfiler profiler;
+
+    private Map<String, Prayer[]> profiles;
+
+    // Projectile id -> prayer for the active profile, null when disabled
+    private Prayer[] prayers;
+
+    private final int[] impactTicks = new int[MAX_PENDING];
+    private final Prayer[] impactPrayers = new Prayer[MAX_PENDING];
+    private int pending;
+
+    @Inject
+    ProjectilePrayerEngine(Client client, MenuActionDispatcher dispatcher, TickContext tickContext, HandlerProfiler profiler) {
+        this.client = client;
+        this.dispatcher = dispatcher;
+        this.tickContext = tickContext;
+        this.profiler = profiler;
+    }
+
+    /**
+     * Activates the table of the given profile, or disables the engine when null.
+     */
+    public void setProfile(String profile) {
+        pending = 0;
+        if (profile == null) {
+            prayers = null;
+            return;
+        }
+
+        if (profiles == null) {
+            profiles = loadProfiles();
+        }
+
+        prayers = profiles.get(profile);
+        if (prayers == null) {
+            log.warn("No projectile prayer profile named {}", profile);
+        }
+    }
+
+    @Subscribe
+    public void onProjectileSpawned(ProjectileSpawned event) {
+        profiler.time(ProjectilePrayerEngine.class, "onProjectileSpawned", () -> {
+            Projectile projectile = event.getProjectile();
+            int id = projectile.getId();
+            if (prayers == null || id < 0 || id >= prayers.length || prayers[id] == null) {
+                return;
+            }
+
+            Actor target = projectile.getInteracting();
+            if (target != null && target != tickContext.getPlayer()) {
+                return;
+            }
+
+            int cyclesLeft = Math.max(0, projectile.getEndCycle() - client.getGameCycle());
+            int impactTick = client.getTickCount() + (cyclesLeft + CYCLES_PER_TICK - 1) / CYCLES_PER_TICK;
+
+            // Too close to wait for the next game tick
+            if (impactTick <= client.getTickCount() + 1) {
+                if (!client.isPrayerActive(prayers[id])) {
+                    activate(prayers[id]);
+                }
+                return;
+            }
+
+            if (pending == MAX_PENDING) {
+                log.debug("Too many projectiles in flight, ignoring {}", id);
+                return;
+            }
+
+            // Keep the queue ordered by impact tick, projectiles spawned first win ties
+            int i = pending++;
+            while (i > 0 && impactTicks[i - 1] > impactTick) {
+                impactTicks[i] = impactTicks[i - 1];
+                impactPrayers[i] = impactPrayers[i - 1];
+                i--;
+            }
+            impactTicks[i] = impactTick;
+            impactPrayers[i] = prayers[id];
+        });
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        profiler.time(ProjectilePrayerEngine.class, "onGameTick", () -> {
+            if (pending == 0) {
+                return;
+            }
+
+            int tick = client.getTickCount();
+
+            int landed = 0;
+            while (landed < pending && impactTicks[landed] <= tick) {
+                landed++;
+            }
+            if (landed > 0) {
+                System.arraycopy(impactTicks, landed, impactTicks, 0, pending - landed);
+                System.arraycopy(impactPrayers, landed, impactPrayers, 0, pending - landed);
+                pending -= landed;
+            }
+
+            // A prayer clicked now is active from the next tick on, so only the next impact matters
+            if (pending > 0 && impactTicks[0] == tick + 1) {
+                Prayer prayer = impactPrayers[0];
+                if (!client.isPrayerActive(prayer)) {
+                    activate(prayer);
+                }
+            }
+        });
+    }
+
+    private void activate(Prayer prayer) {
+        Widget prayerWidget = client.getWidget(prayer.getWidgetInfo().getId());
+        if (prayerWidget == null) {
+            log.error("Could not find prayer widget");
+            return;
+        }
+
+        log.debug("Activating {} for impact on tick {}", prayer, client.getTickCount() + 1);
+        dispatcher.submit(
+                ActionPriority.PROTECTION_PRAYER,
+                "Activate",
+                prayerWidget.getName(),
+                1,
+                MenuAction.CC_OP.getId(),
+                -1,
+                prayerWidget.getId()
+        );
+    }
+
+    private static Map<String, Prayer[]> loadProfiles() {
+        Properties properties = new Properties();
+        try (InputStream in = ProjectilePrayerEngine.class.getResourceAsStream(PROFILE_FILE)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to read bundled projectile prayer profiles", e);
+        }
+
+        if (USER_PROFILE_FILE.isFile()) {
+            try (InputStream in = new FileInputStream(USER_PROFILE_FILE)) {
+                properties.load(in);
+            } catch (IOException e) {
+                log.warn("Unable to read {}", USER_PROFILE_FILE, e);
+            }
+        }
+
+        Map<String, Map<Integer, Prayer>> entries = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.lastIndexOf('.');
+            try {
+                int projectileId = Integer.parseInt(key.substring(separator + 1));
+                if (projectileId < 0) {
+                    throw new IllegalArgumentException();
+                }
+                Prayer prayer = Prayer.valueOf(properties.getProperty(key).trim());
+                entries.computeIfAbsent(key.substring(0, separator), p -> new HashMap<>()).put(projectileId, prayer);
+            } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+                log.warn("Ignoring invalid projectile prayer entry {}", key);
+            }
+        }
+
+        Map<String, Prayer[]> profiles = new HashMap<>();
+        for (Map.Entry<String, Map<Integer, Prayer>> profile : entries.entrySet()) {
+            int maxId = profile.getValue().keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+            Prayer[] table = new Prayer[maxId + 1];
+            profile.getValue().forEach((id, prayer) -> table[id] = prayer);
+            profiles.put(profile.getKey(), table);
+        }
+        return profiles;
+    }
+}
@@ -0,0 +1,166 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import net.runelite.api.GameObject;
+import net.runelite.api.NPC;
+import net.runelite.api.NPCComposition;
+import net.runelite.api.Point;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.WallObjectDespawned;
+import net.runelite.api.events.WallObjectSpawned;
+import net.runelite.client.eventbus.Subscribe;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Walking distances from the player over the scene collision flags. A breadth-first search over
+ * the whole scene runs the first time a cost is asked for after the player moved, the scene
+ * reloaded or an object (e.g. a door) changed, so every further query on the same tile is a lookup.
+ *
+ * <p>Costs are path lengths in tiles. Targets that cannot be reached rank after every reachable
+ * one, by straight-line distance. Without collision data the straight-line distance is used.
+ */
+@Singleton
+public class Reachability {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final Client client;
+    private final TickContext tickContext;
+    private final HandlerProfiler profiler;
+
+    private final PathSearch search = new PathSearch();
+
+    private boolean valid;
+    private int plane;
+    private int originX;
+    private int originY;
+
+    @Inject
+    Reachability(Client client, TickContext tickContext, HandlerProfiler profiler) {
+        this.client = client;
+        this.tickContext = tickContext;
+        this.profiler = profiler;
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        profiler.time(Reachability.class, "onGameStateChanged", () -> {
+            valid = false;
+        });
+    }
+
+    @Subscribe
+    public void onGameObjectSpawned(GameObjectSpawned event) {
+        profiler.time(Reachability.class, "onGameObjectSpawned", () -> {
+            valid = false;
+        });
+    }
+
+    @Subscribe
+    public void onGameObjectDespawned(GameObjectDespawned event) {
+        profiler.time(Reachability.class, "onGameObjectDespawned", () -> {
+            valid = false;
+        });
+    }
+
+    @Subscribe
+    public void onWallObjectSpawned(WallObjectSpawned event) {
+        profiler.time(Reachability.class, "onWallObjectSpawned", () -> {
+            valid = false;
+        });
+    }
+
+    @Subscribe
+    public void onWallObjectDespawned(WallObjectDespawned event) {
+        profiler.time(Reachability.class, "onWallObjectDespawned", () -> {
+            valid = false;
+        });
+    }
+
+    /**
+     * Cost of walking onto the given scene tile, e.g. to pick up an item.
+     */
+    public int getWalkCost(int plane, int sceneX, int sceneY) {
+        if (!update() || plane != this.plane || !PathSearch.inScene(sceneX, sceneY)) {
+            return fallback(plane, sceneX, sceneY, sceneX, sceneY);
+        }
+
+        int distance = search.distance(sceneX, sceneY);
+        return distance >= 0 ? distance : fallback(plane, sceneX, sceneY, sceneX, sceneY);
+    }
+
+    /**
+     * Cost of walking next to the given scene area, to interact with what occupies it.
+     */
+    public int getInteractCost(int plane, int minX, int minY, int maxX, int maxY) {
+        if (!update() || plane != this.plane) {
+            return fallback(plane, minX, minY, maxX, maxY);
+        }
+
+        int distance = search.interactDistance(client.getCollisionMaps()[plane].getFlags(), minX, minY, maxX, maxY);
+        return distance >= 0 ? distance : fallback(plane, minX, minY, maxX, maxY);
+    }
+
+    public int getInteractCost(GameObject object) {
+        Point min = object.getSceneMinLocation();
+        Point max = object.getSceneMaxLocation();
+        if (max == null) {
+            max = min;
+        }
+        return getInteractCost(object.getPlane(), min.getX(), min.getY(), max.getX(), max.getY());
+    }
+
+    public int getInteractCost(NPC npc) {
+        WorldPoint location = npc.getWorldLocation();
+        NPCComposition composition = npc.getComposition();
+        int size = composition == null ? 1 : Math.max(1, composition.getSize());
+        int x = location.getX() - client.getBaseX();
+        int y = location.getY() - client.getBaseY();
+        return getInteractCost(location.getPlane(), x, y, x + size - 1, y + size - 1);
+    }
+
+    private int fallback(int plane, int minX, int minY, int maxX, int maxY) {
+        if (!tickContext.hasPlayer() || tickContext.getPlane() != plane) {
+            return UNREACHABLE;
+        }
+
+        int straight = PathSearch.straightDistance(tickContext.getSceneX(), tickContext.getSceneY(), minX, minY, maxX, maxY);
+        return valid ? PathSearch.UNREACHABLE_OFFSET + straight : straight;
+    }
+
+    /**
+     * Makes sure distances are computed from the player's current tile, returns false without collision data.
+     */
+    private boolean update() {
+        if (!tickContext.hasPlayer()) {
+            valid = false;
+            return false;
+        }
+
+        // A new scene base always comes with a scene load, which invalidates the search
+        int playerPlane = tickContext.getPlane();
+        int x = tickContext.getSceneX();
+        int y = tickContext.getSceneY();
+        if (valid && playerPlane == plane && x == originX && y == originY) {
+            return true;
+        }
+
+        CollisionData[] maps = client.getCollisionMaps();
+        if (maps == null || playerPlane >= maps.length || maps[playerPlane] == null || !PathSearch.inScene(x, y)) {
+            valid = false;
+            return false;
+        }
+
+        plane = playerPlane;
+        originX = x;
+        originY = y;
+        search.search(maps[plane].getFlags(), x, y);
+        valid = true;
+        return true;
+    }
+}
@@ -0,0 +1,242 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.Point;
+import net.runelite.api.Scene;
+import net.runelite.api.Tile;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.util.Text;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the game objects in the loaded scene, keyed by object id and by standardized name.
+ * It is kept up to date from spawn/despawn events, so lookups never walk the scene tiles.
+ */
+@Slf4j
+@Singleton
+public class SceneObjectIndex {
+    private final Client client;
+    private final ClientThread clientThread;
+    private final TickContext tickContext;
+    private final Reachability reachability;
+    private final HandlerProfiler profiler;
+
+    private final Map<Integer, List<GameObject>> objectsById = new HashMap<>();
+    private final Map<String, List<GameObject>> objectsByName = new HashMap<>();
+
+    // Name fragment as queried -> standardized names containing it, extended as new names appear in the scene
+    private final Map<String, List<String>> fragmentNames = new HashMap<>();
+
+    @Inject
+    SceneObjectIndex(Client client, ClientThread clientThread, TickContext tickContext, Reachability reachability,
+                     HandlerProfiler profiler) {
+        this.client = client;
+        this.clientThread = clientThread;
+        this.tickContext = tickContext;
+        this.reachability = reachability;
+        this.profiler = profiler;
+    }
+
+    @Subscribe
+    public void onGameObjectSpawned(GameObjectSpawned event) {
+        profiler.time(SceneObjectIndex.class, "onGameObjectSpawned", () -> {
+            add(event.getGameObject());
+        });
+    }
+
+    @Subscribe
+    public void onGameObjectDespawned(GameObjectDespawned event) {
+        profiler.time(SceneObjectIndex.class, "onGameObjectDespawned", () -> {
+            remove(event.getGameObject());
+        });
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        profiler.time(SceneObjectIndex.class, "onGameStateChanged", () -> {
+            // Every object of the new scene is re-announced through GameObjectSpawned once loading completes
+            if (event.getGameState() == GameState.LOADING || event.getGameState() == GameState.LOGIN_SCREEN) {
+                clear();
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the index with a single scene walk. Only needed when the index is started
+     * while a scene is already loaded, afterwards the spawn events keep it current.
+     */
+    public void rebuild() {
+        clientThread.invoke(() -> {
+            clear();
+
+            if (client.getGameState() != GameState.LOGGED_IN) {
+                return;
+            }
+
+            Scene scene = client.getScene();
+            if (scene == null || scene.getTiles() == null) {
+                log.error("Scene is null. Cannot index game objects.");
+                return;
+            }
+
+            for (Tile[][] plane : scene.getTiles()) {
+                for (Tile[] column : plane) {
+                    for (Tile tile : column) {
+                        if (tile == null || tile.getGameObjects() == null) {
+                            continue;
+                        }
+
+                        for (GameObject object : tile.getGameObjects()) {
+                            // Objects larger than one tile are referenced from every tile they cover
+                            if (object != null && object.getSceneMinLocation().equals(tile.getSceneLocation())) {
+                                add(object);
+                            }
+                        }
+                    }
+                }
+            }
+            log.debug("Indexed {} object ids in the current scene", objectsById.size());
+        });
+    }
+
+    public void clear() {
+        objectsById.clear();
+        objectsByName.clear();
+        fragmentNames.clear();
+    }
+
+    public List<GameObject> getObjects(int id) {
+        return objectsById.getOrDefault(id, Collections.emptyList());
+    }
+
+    /**
+     * Returns the object on the player's plane with the shortest walk to it whose name contains
+     * the given fragment (case insensitive), or null if there is none. Objects that cannot be
+     * reached, e.g. behind a wall, are only returned when no other object matches.
+     */
+    public GameObject getNearest(String nameFragment) {
+        if (!tickContext.hasPlayer()) {
+            return null;
+        }
+
+        int plane = tickContext.getPlane();
+        GameObject nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+
+        for (String name : getMatchingNames(nameFragment)) {
+            for (GameObject object : objectsByName.get(name)) {
+                if (object.getPlane() != plane) {
+                    continue;
+                }
+
+                int distance = reachability.getInteractCost(object);
+                if (distance < nearestDistance) {
+                    nearest = object;
+                    nearestDistance = distance;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Captures the objects on the player's plane whose name contains the given fragment, with the
+     * collision flags to plan a walk to them, or returns null without a player. Must be called on
+     * the client thread.
+     */
+    public SceneSnapshot snapshot(String nameFragment) {
+        if (!tickContext.hasPlayer()) {
+            return null;
+        }
+
+        int plane = tickContext.getPlane();
+        List<SceneSnapshot.Target> targets = new ArrayList<>();
+        for (String name : getMatchingNames(nameFragment)) {
+            for (GameObject object : objectsByName.get(name)) {
+                if (object.getPlane() != plane) {
+                    continue;
+                }
+
+                Point min = object.getSceneMinLocation();
+                Point max = object.getSceneMaxLocation();
+                if (max == null) {
+                    max = min;
+                }
+                targets.add(new SceneSnapshot.Target(object.getId(), object.getName(),
+                        min.getX(), min.getY(), max.getX(), max.getY()));
+            }
+        }
+
+        int[][] flags = null;
+        CollisionData[] maps = client.getCollisionMaps();
+        if (!targets.isEmpty() && maps != null && plane < maps.length && maps[plane] != null) {
+            int[][] live = maps[plane].getFlags();
+            flags = new int[live.length][];
+            for (int x = 0; x < live.length; x++) {
+                flags[x] = live[x].clone();
+            }
+        }
+
+        return new SceneSnapshot(tickContext.getTick(), plane, tickContext.getSceneX(), tickContext.getSceneY(),
+                flags, targets);
+    }
+
+    private List<String> getMatchingNames(String nameFragment) {
+        return fragmentNames.computeIfAbsent(nameFragment, f -> {
+            String fragment = Text.standardize(f);
+            List<String> names = new ArrayList<>();
+            for (String name : objectsByName.keySet()) {
+                if (name.contains(fragment)) {
+                    names.add(name);
+                }
+            }
+            return names;
+        });
+    }
+
+    private void add(GameObject object) {
+        objectsById.computeIfAbsent(object.getId(), id -> new ArrayList<>()).add(object);
+
+        String name = object.getName() == null ? "" : Text.standardize(object.getName());
+        List<GameObject> named = objectsByName.get(name);
+        if (named == null) {
+            named = new ArrayList<>();
+            objectsByName.put(name, named);
+
+            for (Map.Entry<String, List<String>> entry : fragmentNames.entrySet()) {
+                if (name.contains(Text.standardize(entry.getKey()))) {
+                    entry.getValue().add(name);
+                }
+            }
+        }
+        named.add(object);
+    }
+
+    private void remove(GameObject object) {
+        List<GameObject> withId = objectsById.get(object.getId());
+        if (withId != null) {
+            withId.remove(object);
+        }
+
+        String name = object.getName() == null ? "" : Text.standardize(object.getName());
+        List<GameObject> named = objectsByName.get(name);
+        if (named != null) {
+            named.remove(object);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The part of the scene a plan needs, copied on the client thread so it can be planned on
+ * another: the player's tile, the collision flags of the player's plane and the candidate
+ * targets. Nothing in it refers back to client objects.
+ */
+public final class SceneSnapshot {
+    // A search's buffers are reused by the next search on the same worker
+    private static final ThreadLocal<PathSearch> SEARCHES = ThreadLocal.withInitial(PathSearch::new);
+
+    @Getter
+    private final int tick;
+    @Getter
+    private final int plane;
+    private final int playerX;
+    private final int playerY;
+    // Null without collision data
+    private final int[][] flags;
+    @Getter
+    private final List<Target> targets;
+
+    SceneSnapshot(int tick, int plane, int playerX, int playerY, int[][] flags, List<Target> targets) {
+        this.tick = tick;
+        this.plane = plane;
+        this.playerX = playerX;
+        this.playerY = playerY;
+        this.flags = flags;
+        this.targets = Collections.unmodifiableList(targets);
+    }
+
+    /**
+     * Returns the target with the shortest walk to it, or null when there are none. Targets that
+     * cannot be reached rank after every reachable one, like {@link Reachability} ranks them.
+     */
+    public Target nearest() {
+        if (targets.isEmpty()) {
+            return null;
+        }
+
+        PathSearch search = null;
+        if (flags != null && PathSearch.inScene(playerX, playerY)) {
+            search = SEARCHES.get();
+            search.search(flags, playerX, playerY);
+        }
+
+        Target nearest = null;
+        int nearestCost = Integer.MAX_VALUE;
+        for (Target target : targets) {
+            int cost = search == null ? -1
+                    : search.interactDistance(flags, target.minX, target.minY, target.maxX, target.maxY);
+            if (cost < 0) {
+                int straight = PathSearch.straightDistance(playerX, playerY, target.minX, target.minY, target.maxX, target.maxY);
+                cost = search == null ? straight : PathSearch.UNREACHABLE_OFFSET + straight;
+            }
+
+            if (cost < nearestCost) {
+                nearest = target;
+                nearestCost = cost;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * A game object as captured: its id, name and the scene tiles it covers.
+     */
+    @Value
+    public static class Target {
+        int id;
+        String name;
+        int minX;
+        int minY;
+        int maxX;
+        int maxY;
+    }
+}
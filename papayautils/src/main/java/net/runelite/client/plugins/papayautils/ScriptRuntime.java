@@ -0,0 +1,255 @@
+package net.runelite.client.plugins.papayautils;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.Client;
+import net.runelite.api.InventoryID;
+import net.runelite.api.ScriptID;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.ScriptPostFired;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.eventbus.Subscribe;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs bot scripts written as a sequence of actions and waits, e.g.
+ * {@code concatArray(step(openBank), widgetOpen(BANK_ITEM_CONTAINER), step(withdraw), inventoryChanged())}.
+ * Each wait completes on the event that satisfies it, so a script continues in the handler of
+ * that event rather than on a later polled tick.
+ *
+ * <p>Interface and item container events reach the scripts after the models such as
+ * {@link InventoryModel} and {@link WidgetIndex} have seen them, so a script resuming on a change
+ * reads the changed state.
+ *
+ * <p>A waiting script is a single observer on the subject of the event it waits for, so
+ * suspended scripts cost nothing until their event arrives. Everything runs on the client
+ * thread: the events are posted there and a script continues in the same call.
+ */
+@Slf4j
+@Singleton
+public class ScriptRuntime {
+    private static final ChatMessageType[] GAME_MESSAGES = {ChatMessageType.GAMEMESSAGE, ChatMessageType.SPAM};
+
+    private final Client client;
+    private final TickContext tickContext;
+    private final ChatTriggers chatTriggers;
+    private final MenuActionDispatcher dispatcher;
+    private final HandlerProfiler profiler;
+
+    private final PublishSubject<Integer> ticks = PublishSubject.create();
+    private final PublishSubject<Integer> widgetLoads = PublishSubject.create();
+    private final PublishSubject<Integer> containerChanges = PublishSubject.create();
+    private final PublishSubject<Integer> bankBuilds = PublishSubject.create();
+
+    @Inject
+    ScriptRuntime(Client client, TickContext tickContext, ChatTriggers chatTriggers, MenuActionDispatcher dispatcher,
+                  HandlerProfiler profiler) {
+        this.client = client;
+        this.tickContext = tickContext;
+        this.chatTriggers = chatTriggers;
+        this.dispatcher = dispatcher;
+        this.profiler = profiler;
+    }
+
+    // After the tick context has been updated
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        profiler.time(ScriptRuntime.class, "onGameTick", () -> {
+            if (ticks.hasObservers()) {
+                ticks.onNext(tickContext.getTick());
+            }
+        });
+    }
+
+    @Subscribe(priority = -1)
+    public void onWidgetLoaded(WidgetLoaded event) {
+        profiler.time(ScriptRuntime.class, "onWidgetLoaded", () -> {
+            if (widgetLoads.hasObservers()) {
+                widgetLoads.onNext(event.getGroupId());
+            }
+        });
+    }
+
+    @Subscribe(priority = -1)
+    public void onItemContainerChanged(ItemContainerChanged event) {
+        profiler.time(ScriptRuntime.class, "onItemContainerChanged", () -> {
+            if (containerChanges.hasObservers()) {
+                containerChanges.onNext(event.getContainerId());
+            }
+        });
+    }
+
+    @Subscribe(priority = -1)
+    public void onScriptPostFired(ScriptPostFired event) {
+        profiler.time(ScriptRuntime.class, "onScriptPostFired", () -> {
+            if (event.getScriptId() == ScriptID.BANKMAIN_BUILD && bankBuilds.hasObservers()) {
+                bankBuilds.onNext(event.getScriptId());
+            }
+        });
+    }
+
+    /**
+     * Starts a script on the next game tick, so it runs on the client thread even when started
+     * from a config button. Failures are logged and end the script; dispose the result to stop it.
+     */
+    public Disposable run(String name, Completable script) {
+        log.debug("Starting script {}", name);
+        return ticks(1).andThen(script).subscribe(
+                () -> log.debug("Script {} finished", name),
+                e -> log.warn("Script {} failed", name, e));
+    }
+
+    /**
+     * Runs an action when the script gets to it.
+     */
+    public Completable step(Runnable action) {
+        return Completable.fromRunnable(action);
+    }
+
+    /**
+     * Completes after the given number of game ticks, starting with the next one.
+     */
+    public Completable ticks(int count) {
+        return count <= 0 ? Completable.complete() : ticks.take(count).ignoreElements();
+    }
+
+    /**
+     * Completes at once if the condition holds, else on the first game tick on which it does.
+     */
+    public Completable until(BooleanSupplier condition) {
+        return Completable.defer(() -> condition.getAsBoolean()
+                ? Completable.complete()
+                : ticks.filter(tick -> condition.getAsBoolean()).firstElement().ignoreElement());
+    }
+
+    /**
+     * Completes at once if the condition holds, else on the first interface or item container
+     * change, or game tick, after which it does. Unlike {@link #until(BooleanSupplier)} it does
+     * not wait for the tick when the change comes in between.
+     */
+    public Completable when(BooleanSupplier condition) {
+        return Completable.defer(() -> condition.getAsBoolean()
+                ? Completable.complete()
+                : Observable.merge(containerChanges, widgetLoads, bankBuilds, ticks)
+                        .filter(change -> condition.getAsBoolean())
+                        .firstElement()
+                        .ignoreElement());
+    }
+
+    /**
+     * Completes when the player neither animates nor interacts with anything.
+     */
+    public Completable idle() {
+        return until(tickContext::isIdle);
+    }
+
+    /**
+     * Completes the next time an interface of the group is loaded.
+     */
+    public Completable widgetLoaded(int groupId) {
+        return widgetLoads.filter(id -> id == groupId).firstElement().ignoreElement();
+    }
+
+    /**
+     * Completes at once if the widget is open, else when its interface is loaded.
+     */
+    public Completable widgetOpen(WidgetInfo widget) {
+        return Completable.defer(() -> client.getWidget(widget.getId()) != null
+                ? Completable.complete()
+                : widgetLoaded(widget.getGroupId()));
+    }
+
+    /**
+     * Completes at once if the widget is open, else runs the opener, e.g. a click on the bank
+     * booth, until the widget's interface is loaded.
+     */
+    public Completable open(WidgetInfo widget, Runnable opener, int timeoutTicks) {
+        return Completable.defer(() -> client.getWidget(widget.getId()) != null
+                ? Completable.complete()
+                : attempt(opener, widgetLoaded(widget.getGroupId()), timeoutTicks));
+    }
+
+    /**
+     * Completes the next time the inventory changes.
+     */
+    public Completable inventoryChanged() {
+        int inventory = InventoryID.INVENTORY.getId();
+        return containerChanges.filter(id -> id == inventory).firstElement().ignoreElement();
+    }
+
+    /**
+     * Completes on the next game message containing the phrase. The phrase is only matched
+     * against messages while the script waits for it.
+     */
+    public Completable chatMessage(String phrase) {
+        return Completable.create(emitter -> {
+            Object owner = new Object();
+            chatTriggers.register(owner, phrase, message -> emitter.onComplete(), GAME_MESSAGES);
+            emitter.setCancellable(() -> chatTriggers.unregister(owner));
+        });
+    }
+
+    /**
+     * Emits true when the condition completes within the given number of ticks, false otherwise.
+     */
+    public Single<Boolean> within(Completable condition, int timeoutTicks) {
+        return condition.toSingleDefault(true).ambWith(ticks(timeoutTicks).toSingleDefault(false));
+    }
+
+    /**
+     * Runs the action now and on every following tick until it reports success, e.g. a click on
+     * an interface child that may not have been built yet.
+     */
+    public Completable attempt(BooleanSupplier action) {
+        return until(action);
+    }
+
+    /**
+     * Runs the action and waits for its outcome, running it again whenever the outcome does not
+     * follow within the given number of ticks, e.g. when a click was lost.
+     */
+    public Completable attempt(Runnable action, Completable outcome, int timeoutTicks) {
+        return step(action)
+                .andThen(within(outcome, timeoutTicks))
+                .repeat()
+                .takeUntil(done -> done)
+                .ignoreElements();
+    }
+
+    /**
+     * Sends the steps of the compound action that are not done yet in one dispatch and completes
+     * once every step's effect has been seen. When some effects do not follow within the given
+     * number of ticks, only the steps still missing are sent again. The effects are checked on
+     * each interface and item container change, so a sequence confirmed by the server's next
+     * update completes in the tick of that update.
+     */
+    public Completable perform(ActionPriority priority, CompoundAction action, int timeoutTicks) {
+        Completable round = Completable.defer(() -> {
+            if (action.isDone()) {
+                return Completable.complete();
+            }
+
+            MenuIntent[] intents = action.pendingIntents();
+            if (intents.length == 0) {
+                // Wait for the interface the first step needs, e.g. the bank being built
+                return within(when(() -> action.isDone() || action.pendingIntents().length > 0), timeoutTicks)
+                        .ignoreElement();
+            }
+
+            int done = action.countDone();
+            dispatcher.submit(priority, intents);
+            return within(when(() -> action.countDone() > done), timeoutTicks).ignoreElement();
+        });
+        return round.repeatUntil(action::isDone);
+    }
+}
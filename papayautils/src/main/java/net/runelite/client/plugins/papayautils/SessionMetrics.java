@@ -0,0 +1,166 @@
+package net.runelite.client.plugins.papayautils;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput counters of the papaya plugins, such as helms smithed or kills, with their rate
+ * since the counter was created. Counting is a lock free add, so plugins count from any handler.
+ * The counters can be written periodically to .runelite/papaya/metrics.prom in the Prometheus
+ * text format, e.g. for the textfile collector of a local node exporter.
+ */
+@Slf4j
+@Singleton
+public class SessionMetrics {
+    static final File EXPORT_FILE = new File(new File(RuneLite.RUNELITE_DIR, "papaya"), "metrics.prom");
+
+    private static final long EXPORT_INTERVAL_SECONDS = 30;
+    private static final double MILLIS_PER_HOUR = 3_600_000;
+
+    // Sorted by plugin and name, so the export and the overlay list a plugin's counters together
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+
+    private ScheduledExecutorService exporter;
+
+    /**
+     * Returns the counter of the plugin with the given name, created on first use. The name
+     * should be a Prometheus metric name fragment such as {@code helms_smithed}, the help a
+     * short label such as "Helms smithed".
+     */
+    public Counter counter(String plugin, String name, String help) {
+        return counters.computeIfAbsent(plugin + '_' + name, key -> new Counter(plugin, name, help));
+    }
+
+    public List<Counter> getCounters() {
+        return new ArrayList<>(counters.values());
+    }
+
+    /**
+     * Writes the counters every 30 seconds until {@link #stopExport()}.
+     */
+    public synchronized void startExport() {
+        if (exporter != null) {
+            return;
+        }
+
+        exporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "papaya-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        exporter.scheduleWithFixedDelay(this::exportQuietly, EXPORT_INTERVAL_SECONDS, EXPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic export after writing the counters a last time.
+     */
+    public synchronized void stopExport() {
+        if (exporter == null) {
+            return;
+        }
+
+        exporter.shutdownNow();
+        exporter = null;
+        exportQuietly();
+    }
+
+    /**
+     * Writes every counter to .runelite/papaya/metrics.prom. The file is replaced in one move, so
+     * a scraper never reads a partly written file.
+     */
+    public File export() throws IOException {
+        StringBuilder out = new StringBuilder();
+        for (Counter counter : counters.values()) {
+            String metric = counter.getMetricName();
+            out.append("# HELP ").append(metric).append(' ').append(counter.help).append('\n');
+            out.append("# TYPE ").append(metric).append(" counter\n");
+            out.append(metric).append(' ').append(counter.get()).append('\n');
+        }
+
+        AtomicFiles.write(EXPORT_FILE, out.toString().getBytes(StandardCharsets.UTF_8));
+        return EXPORT_FILE;
+    }
+
+    private void exportQuietly() {
+        try {
+            export();
+        } catch (IOException e) {
+            log.warn("Unable to write metrics", e);
+        }
+    }
+
+    public static final class Counter {
+        private final String plugin;
+        private final String name;
+        private final String help;
+        private final long createdMillis = System.currentTimeMillis();
+        private final LongAdder count = new LongAdder();
+
+        // Count carried over from a checkpoint of an earlier session, not part of the rate
+        private volatile long restored;
+
+        private Counter(String plugin, String name, String help) {
+            this.plugin = plugin;
+            this.name = name;
+            this.help = help;
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long amount) {
+            count.add(amount);
+        }
+
+        public long get() {
+            return restored + count.sum();
+        }
+
+        /**
+         * Carries over the count of an earlier session, unless this session has counted already.
+         */
+        void restore(long total) {
+            if (restored == 0 && count.sum() == 0) {
+                restored = total;
+            }
+        }
+
+        String getName() {
+            return name;
+        }
+
+        public String getPlugin() {
+            return plugin;
+        }
+
+        public String getHelp() {
+            return help;
+        }
+
+        public String getMetricName() {
+            return "papaya_" + plugin + '_' + name + "_total";
+        }
+
+        /**
+         * Returns the average count per hour since the counter was created.
+         */
+        public double getPerHour() {
+            long elapsed = System.currentTimeMillis() - createdMillis;
+            return elapsed <= 0 ? 0 : count.sum() * MILLIS_PER_HOUR / elapsed;
+        }
+    }
+}
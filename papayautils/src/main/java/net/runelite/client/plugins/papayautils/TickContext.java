@@ -0,0 +1,206 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.Actor;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Player;
+import net.runelite.api.Skill;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.StatChanged;
+import net.runelite.client.eventbus.Subscribe;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * The local player's state as of the start of the current game tick: tile, region, skill levels,
+ * animation and interaction target. It is read from the client once per tick, before any plugin
+ * handles the tick, so handlers share one read instead of each querying the client.
+ *
+ * <p>Events between ticks see the state of the last tick, except for skill levels, which follow
+ * StatChanged, and after a scene load, which makes the next read refresh everything so e.g.
+ * item spawns after a teleport see the new region.
+ */
+@Singleton
+public class TickContext {
+    private static final int SKILLS = Skill.values().length;
+
+    private final Client client;
+    private final HandlerProfiler profiler;
+
+    private boolean stale = true;
+
+    private int tick;
+    private Player player;
+    private WorldPoint location;
+    private int regionId = -1;
+    private int sceneX;
+    private int sceneY;
+    private boolean instanced;
+    private int animation = -1;
+    private Actor interacting;
+    private final int[] boostedLevels = new int[SKILLS];
+    private final int[] realLevels = new int[SKILLS];
+
+    @Inject
+    TickContext(Client client, HandlerProfiler profiler) {
+        this.client = client;
+        this.profiler = profiler;
+    }
+
+    // After the profiler's tick timer, before every plugin
+    @Subscribe(priority = 500)
+    public void onGameTick(GameTick event) {
+        profiler.time(TickContext.class, "onGameTick", () -> {
+            update();
+        });
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        profiler.time(TickContext.class, "onGameStateChanged", () -> {
+            stale = true;
+        });
+    }
+
+    @Subscribe
+    public void onStatChanged(StatChanged event) {
+        profiler.time(TickContext.class, "onStatChanged", () -> {
+            // Levels are kept current between ticks, a restore must not be missed until the next one
+            boostedLevels[event.getSkill().ordinal()] = event.getBoostedLevel();
+            realLevels[event.getSkill().ordinal()] = event.getLevel();
+        });
+    }
+
+    public int getTick() {
+        refresh();
+        return tick;
+    }
+
+    /**
+     * Returns the local player, or null when not logged in.
+     */
+    public Player getPlayer() {
+        refresh();
+        return player;
+    }
+
+    public boolean hasPlayer() {
+        return getPlayer() != null;
+    }
+
+    /**
+     * Returns the player's tile, or null without a player.
+     */
+    public WorldPoint getLocation() {
+        refresh();
+        return location;
+    }
+
+    public int getWorldX() {
+        refresh();
+        return location == null ? -1 : location.getX();
+    }
+
+    public int getWorldY() {
+        refresh();
+        return location == null ? -1 : location.getY();
+    }
+
+    public int getPlane() {
+        refresh();
+        return location == null ? -1 : location.getPlane();
+    }
+
+    /**
+     * Returns the id of the region the player is in, or -1 without a player.
+     */
+    public int getRegionId() {
+        refresh();
+        return regionId;
+    }
+
+    public int getSceneX() {
+        refresh();
+        return sceneX;
+    }
+
+    public int getSceneY() {
+        refresh();
+        return sceneY;
+    }
+
+    public boolean isInstanced() {
+        refresh();
+        return instanced;
+    }
+
+    public int getAnimation() {
+        refresh();
+        return animation;
+    }
+
+    public Actor getInteracting() {
+        refresh();
+        return interacting;
+    }
+
+    /**
+     * True when the player neither animates nor interacts with anything.
+     */
+    public boolean isIdle() {
+        refresh();
+        return animation == -1 && interacting == null;
+    }
+
+    public int getBoostedLevel(Skill skill) {
+        refresh();
+        return boostedLevels[skill.ordinal()];
+    }
+
+    public int getRealLevel(Skill skill) {
+        refresh();
+        return realLevels[skill.ordinal()];
+    }
+
+    private void refresh() {
+        if (stale) {
+            update();
+        }
+    }
+
+    private void update() {
+        stale = false;
+        tick = client.getTickCount();
+        player = client.getGameState() == GameState.LOGGED_IN ? client.getLocalPlayer() : null;
+
+        if (player == null) {
+            location = null;
+            regionId = -1;
+            sceneX = -1;
+            sceneY = -1;
+            animation = -1;
+            interacting = null;
+        } else {
+            location = player.getWorldLocation();
+            regionId = location.getRegionID();
+            sceneX = location.getX() - client.getBaseX();
+            sceneY = location.getY() - client.getBaseY();
+            animation = player.getAnimation();
+            interacting = player.getInteracting();
+        }
+        instanced = client.isInInstancedRegion();
+
+        copyLevels(client.getBoostedSkillLevels(), boostedLevels);
+        copyLevels(client.getRealSkillLevels(), realLevels);
+    }
+
+    private static void copyLevels(int[] from, int[] to) {
+        if (from == null) {
+            return;
+        }
+        System.arraycopy(from, 0, to, 0, Math.min(from.length, to.length));
+    }
+}
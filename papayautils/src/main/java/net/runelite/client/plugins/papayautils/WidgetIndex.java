@@ -0,0 +1,195 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.Client;
+import net.runelite.api.InventoryID;
+import net.runelite.api.ScriptID;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.ScriptPostFired;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.util.Text;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Lookup of the children of interface containers such as the bank, smithing and dialog option
+ * widgets. A container's children are indexed by item id, name and text the first time it is
+ * queried after the interface was (re)built, and every query result, including a miss, is cached
+ * until then.
+ */
+@Singleton
+public class WidgetIndex {
+    // Cached as the result of a query without a match, computeIfAbsent does not store null
+    private static final int NOT_FOUND = -1;
+
+    private final Client client;
+    private final HandlerProfiler profiler;
+
+    private final Map<Integer, ContainerIndex> containers = new HashMap<>();
+    private int version;
+
+    @Inject
+    WidgetIndex(Client client, HandlerProfiler profiler) {
+        this.client = client;
+        this.profiler = profiler;
+    }
+
+    @Subscribe
+    public void onWidgetLoaded(WidgetLoaded event) {
+        profiler.time(WidgetIndex.class, "onWidgetLoaded", () -> {
+            version++;
+        });
+    }
+
+    @Subscribe
+    public void onScriptPostFired(ScriptPostFired event) {
+        profiler.time(WidgetIndex.class, "onScriptPostFired", () -> {
+            if (event.getScriptId() == ScriptID.BANKMAIN_BUILD) {
+                version++;
+            }
+        });
+    }
+
+    @Subscribe
+    public void onItemContainerChanged(ItemContainerChanged event) {
+        profiler.time(WidgetIndex.class, "onItemContainerChanged", () -> {
+            if (event.getContainerId() == InventoryID.BANK.getId() || event.getContainerId() == InventoryID.INVENTORY.getId()) {
+                version++;
+            }
+        });
+    }
+
+    /**
+     * Returns the first child of the container holding the item, or null.
+     */
+    public Widget findItem(WidgetInfo container, int itemId) {
+        ContainerIndex index = index(container);
+        if (index == null) {
+            return null;
+        }
+
+        return index.child(index.itemIds.get(itemId, NOT_FOUND));
+    }
+
+    /**
+     * Returns the first child of the container holding an item accepted by the matcher, or null.
+     */
+    public Widget findItem(WidgetInfo container, ItemMatcher matcher) {
+        ContainerIndex index = index(container);
+        if (index == null) {
+            return null;
+        }
+
+        return index.child(index.itemQueries.computeIfAbsent(matcher, m -> {
+            for (int i = 0; i < index.children.length; i++) {
+                if (m.matches(index.children[i].getItemId())) {
+                    return i;
+                }
+            }
+            return NOT_FOUND;
+        }));
+    }
+
+    /**
+     * Returns the first child of the container whose name contains the fragment, ignoring case and tags.
+     */
+    public Widget findByName(WidgetInfo container, String nameFragment) {
+        ContainerIndex index = index(container);
+        return index == null ? null : index.child(index.nameQueries.computeIfAbsent(nameFragment, f -> find(index.names, f)));
+    }
+
+    /**
+     * Returns the first child of the container whose text contains the fragment, ignoring case and tags.
+     */
+    public Widget findByText(WidgetInfo container, String textFragment) {
+        ContainerIndex index = index(container);
+        return index == null ? null : index.child(index.textQueries.computeIfAbsent(textFragment, f -> find(index.texts, f)));
+    }
+
+    private static int find(String[] values, String fragment) {
+        String standardized = Text.standardize(fragment);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null && values[i].contains(standardized)) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private ContainerIndex index(WidgetInfo container) {
+        ContainerIndex index = containers.get(container.getId());
+        if (index != null && index.version == version) {
+            return index;
+        }
+
+        Widget widget = client.getWidget(container.getId());
+        if (widget == null) {
+            containers.remove(container.getId());
+            return null;
+        }
+
+        index = new ContainerIndex(widget, version);
+        containers.put(container.getId(), index);
+        return index;
+    }
+
+    private static final class ContainerIndex {
+        private final int version;
+        private final Widget[] children;
+        private final String[] names;
+        private final String[] texts;
+        private final IntIntMap itemIds;
+
+        // Query -> index of the first matching child, or NOT_FOUND
+        private final Map<ItemMatcher, Integer> itemQueries = new IdentityHashMap<>();
+        private final Map<String, Integer> nameQueries = new HashMap<>();
+        private final Map<String, Integer> textQueries = new HashMap<>();
+
+        private ContainerIndex(Widget container, int version) {
+            this.version = version;
+
+            Widget[] dynamicChildren = container.getDynamicChildren();
+            Widget[] staticChildren = container.getStaticChildren();
+            int dynamicCount = dynamicChildren == null ? 0 : dynamicChildren.length;
+            int staticCount = staticChildren == null ? 0 : staticChildren.length;
+
+            Widget[] all = new Widget[dynamicCount + staticCount];
+            int n = 0;
+            for (int i = 0; i < dynamicCount; i++) {
+                if (dynamicChildren[i] != null) {
+                    all[n++] = dynamicChildren[i];
+                }
+            }
+            for (int i = 0; i < staticCount; i++) {
+                if (staticChildren[i] != null) {
+                    all[n++] = staticChildren[i];
+                }
+            }
+
+            children = Arrays.copyOf(all, n);
+            names = new String[n];
+            texts = new String[n];
+            itemIds = new IntIntMap(n);
+
+            for (int i = 0; i < n; i++) {
+                Widget child = children[i];
+                names[i] = child.getName() == null ? null : Text.standardize(child.getName());
+                texts[i] = child.getText() == null ? null : Text.standardize(child.getText());
+                if (child.getItemId() >= 0 && itemIds.get(child.getItemId(), NOT_FOUND) == NOT_FOUND) {
+                    itemIds.put(child.getItemId(), i);
+                }
+            }
+        }
+
+        private Widget child(int i) {
+            return i == NOT_FOUND ? null : children[i];
+        }
+    }
+}
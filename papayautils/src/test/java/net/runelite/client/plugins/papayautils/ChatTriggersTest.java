@@ -0,0 +1,133 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.events.ChatMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChatTriggersTest {
+    private final Object owner = new Object();
+    private final List<String> fired = new ArrayList<>();
+
+    private ChatTriggers triggers;
+
+    @Before
+    public void setUp() {
+        triggers = new ChatTriggers(new HandlerProfiler());
+    }
+
+    @Test
+    public void overlappingPhrases() {
+        register(owner, "he", ChatMessageType.GAMEMESSAGE);
+        register(owner, "she", ChatMessageType.GAMEMESSAGE);
+        register(owner, "hers", ChatMessageType.GAMEMESSAGE);
+        register(owner, "his", ChatMessageType.GAMEMESSAGE);
+
+        post(ChatMessageType.GAMEMESSAGE, "ushers");
+        assertFired("he", "hers", "she");
+
+        // A phrase found several times in one message fires once
+        post(ChatMessageType.GAMEMESSAGE, "he said he is his");
+        assertFired("he", "his");
+    }
+
+    @Test
+    public void rebuiltOnRegisterAndUnregister() {
+        Object other = new Object();
+        register(owner, "apple", ChatMessageType.GAMEMESSAGE);
+        post(ChatMessageType.GAMEMESSAGE, "pineapple");
+        assertFired("apple");
+
+        register(other, "pine", ChatMessageType.GAMEMESSAGE);
+        post(ChatMessageType.GAMEMESSAGE, "pineapple");
+        assertFired("apple", "pine");
+
+        triggers.unregister(owner);
+        post(ChatMessageType.GAMEMESSAGE, "pineapple");
+        assertFired("pine");
+
+        triggers.unregister(other);
+        post(ChatMessageType.GAMEMESSAGE, "pineapple");
+        assertFired();
+    }
+
+    @Test
+    public void phrasesAreNotCaseFolded() {
+        register(owner, "Guard", ChatMessageType.GAMEMESSAGE);
+        register(owner, "Zeah\u2019s", ChatMessageType.GAMEMESSAGE);
+
+        post(ChatMessageType.GAMEMESSAGE, "A guard appears. GUARD!");
+        assertFired();
+
+        post(ChatMessageType.GAMEMESSAGE, "A Guard appears in Zeah\u2019s library.");
+        assertFired("Guard", "Zeah\u2019s");
+
+        post(ChatMessageType.GAMEMESSAGE, "zeah's");
+        assertFired();
+    }
+
+    @Test
+    public void onlyRegisteredTypes() {
+        register(owner, "perk task", ChatMessageType.GAMEMESSAGE, ChatMessageType.SPAM);
+
+        post(ChatMessageType.PUBLICCHAT, "my perk task");
+        post(ChatMessageType.PRIVATECHAT, "your perk task");
+        post(null, "no perk task");
+        assertFired();
+
+        post(ChatMessageType.SPAM, "perk task done");
+        assertFired("perk task");
+
+        // The same phrase for another type only fires for that type
+        register(owner, "perk task", ChatMessageType.PUBLICCHAT);
+        post(ChatMessageType.PUBLICCHAT, "my perk task");
+        assertFired("perk task");
+    }
+
+    @Test
+    public void failingCallbackDoesNotStopTheOthers() {
+        triggers.register(owner, "boom", event -> {
+            throw new IllegalStateException("boom");
+        }, ChatMessageType.GAMEMESSAGE);
+        register(owner, "boo", ChatMessageType.GAMEMESSAGE);
+
+        post(ChatMessageType.GAMEMESSAGE, "boom");
+        assertFired("boo");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyPhrase() {
+        register(owner, "", ChatMessageType.GAMEMESSAGE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTriggerWithoutTypes() {
+        register(owner, "phrase");
+    }
+
+    private void register(Object owner, String phrase, ChatMessageType... types) {
+        triggers.register(owner, phrase, event -> fired.add(phrase), types);
+    }
+
+    private void post(ChatMessageType type, String message) {
+        ChatMessage event = new ChatMessage();
+        event.setType(type);
+        event.setMessage(message);
+        triggers.onChatMessage(event);
+    }
+
+    private void assertFired(String... phrases) {
+        List<String> expected = new ArrayList<>(Arrays.asList(phrases));
+        Collections.sort(expected);
+        Collections.sort(fired);
+        assertEquals(expected, fired);
+        fired.clear();
+    }
+}
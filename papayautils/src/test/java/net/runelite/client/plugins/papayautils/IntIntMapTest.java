@@ -0,0 +1,113 @@
+package net.runelite.client.plugins.papayautils;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class IntIntMapTest {
+    @Test
+    public void putGetAdd() {
+        IntIntMap map = new IntIntMap();
+        assertEquals(-1, map.get(5, -1));
+
+        map.put(5, 50);
+        map.put(-5, 0);
+        assertEquals(50, map.get(5, -1));
+        assertEquals(0, map.get(-5, -1));
+        assertEquals(2, map.size());
+
+        map.put(5, 51);
+        assertEquals(51, map.get(5, -1));
+        assertEquals(2, map.size());
+
+        assertEquals(3, map.add(7, 3));
+        assertEquals(1, map.add(7, -2));
+        assertEquals(1, map.get(7, -1));
+        assertEquals(3, map.size());
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(-1, map.get(5, -1));
+    }
+
+    @Test
+    public void freeMarkerIsNotAKey() {
+        IntIntMap map = new IntIntMap();
+        assertEquals(-1, map.get(Integer.MIN_VALUE, -1));
+        try {
+            map.put(Integer.MIN_VALUE, 1);
+            throw new AssertionError("Integer.MIN_VALUE was put");
+        } catch (IllegalArgumentException expected) {
+            // The marker of free slots
+        }
+    }
+
+    @Test
+    public void collidingKeysKeepTheirValues() {
+        // new IntIntMap(4) has as many slots as the sets of IntSetTest
+        int[] chain = IntSetTest.keysWithHome(6, 3);
+        int wrapped = IntSetTest.keysWithHome(7, 1)[0];
+
+        IntIntMap map = new IntIntMap(4);
+        for (int i = 0; i < chain.length; i++) {
+            map.put(chain[i], i);
+        }
+        map.put(wrapped, 10);
+        map.put(chain[1], 11);
+
+        assertEquals(0, map.get(chain[0], -1));
+        assertEquals(11, map.get(chain[1], -1));
+        assertEquals(2, map.get(chain[2], -1));
+        assertEquals(10, map.get(wrapped, -1));
+        assertEquals(-1, map.get(IntSetTest.keysWithHome(6, 4)[3], -1));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    public void growsPastItsExpectedSize() {
+        IntIntMap map = new IntIntMap(4);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 31 - 500, i);
+        }
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.get(i * 31 - 500, -1));
+            assertEquals(-1, map.get(i * 31 - 499, -1));
+        }
+    }
+
+    @Test
+    public void matchesHashMap() {
+        Random random = new Random(1);
+        IntIntMap map = new IntIntMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        for (int op = 0; op < 100_000; op++) {
+            int key = random.nextInt(256) - 128;
+            int value = random.nextInt(100);
+            switch (random.nextInt(10)) {
+                case 0:
+                    if (op % 7 == 0) {
+                        map.clear();
+                        expected.clear();
+                    }
+                    break;
+                case 1:
+                case 2:
+                case 3:
+                    assertEquals(expected.merge(key, value, Integer::sum).intValue(), map.add(key, value));
+                    break;
+                default:
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.getOrDefault(key, -1).intValue(), map.get(key, -1));
+        }
+    }
+}
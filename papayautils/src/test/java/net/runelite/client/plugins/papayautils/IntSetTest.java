@@ -0,0 +1,154 @@
+package net.runelite.client.plugins.papayautils;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntSetTest {
+    // new IntSet(4) has 8 slots and grows on the fifth key, the tests below stay under that
+    private static final int CAPACITY = 8;
+
+    @Test
+    public void addContainsRemove() {
+        IntSet set = new IntSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(42));
+        assertTrue(set.add(-7));
+        assertFalse(set.add(42));
+        assertEquals(2, set.size());
+
+        assertTrue(set.contains(42));
+        assertTrue(set.contains(-7));
+        assertFalse(set.contains(0));
+
+        assertTrue(set.remove(42));
+        assertFalse(set.remove(42));
+        assertFalse(set.contains(42));
+        assertEquals(1, set.size());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(-7));
+    }
+
+    @Test
+    public void freeMarkerIsNotAKey() {
+        IntSet set = new IntSet();
+        assertFalse(set.contains(Integer.MIN_VALUE));
+        assertFalse(set.remove(Integer.MIN_VALUE));
+        try {
+            set.add(Integer.MIN_VALUE);
+            throw new AssertionError("Integer.MIN_VALUE was added");
+        } catch (IllegalArgumentException expected) {
+            // The marker of free slots
+        }
+    }
+
+    @Test
+    public void removeShiftsCollidingKeysBack() {
+        // Three keys probing from the same slot, pushing a key of the next slot behind them
+        int[] chain = keysWithHome(3, 3);
+        int next = keysWithHome(4, 1)[0];
+
+        for (int first = 0; first < chain.length; first++) {
+            IntSet set = new IntSet(4);
+            for (int key : chain) {
+                set.add(key);
+            }
+            set.add(next);
+
+            assertTrue(set.remove(chain[first]));
+            for (int key : chain) {
+                assertEquals(key != chain[first], set.contains(key));
+            }
+            assertTrue(set.contains(next));
+            assertEquals(3, set.size());
+        }
+    }
+
+    @Test
+    public void removeShiftsBackAcrossTheEnd() {
+        // Probe chains starting in the last slot continue in the first
+        int[] wrapped = keysWithHome(CAPACITY - 1, 3);
+        int first = keysWithHome(0, 1)[0];
+
+        IntSet set = new IntSet(4);
+        for (int key : wrapped) {
+            set.add(key);
+        }
+        set.add(first);
+
+        assertTrue(set.remove(wrapped[0]));
+        assertTrue(set.contains(wrapped[1]));
+        assertTrue(set.contains(wrapped[2]));
+        assertTrue(set.contains(first));
+
+        assertTrue(set.remove(wrapped[2]));
+        assertTrue(set.contains(wrapped[1]));
+        assertTrue(set.contains(first));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void growsPastItsExpectedSize() {
+        IntSet set = new IntSet(4);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(set.add(i * 31 - 500));
+        }
+        assertEquals(1000, set.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(set.contains(i * 31 - 500));
+            assertFalse(set.contains(i * 31 - 499));
+        }
+    }
+
+    @Test
+    public void matchesHashSet() {
+        // Few distinct keys, so adds, removes and collisions keep running into each other
+        Random random = new Random(1);
+        IntSet set = new IntSet(4);
+        Set<Integer> expected = new HashSet<>();
+
+        for (int op = 0; op < 100_000; op++) {
+            int key = random.nextInt(64) - 32;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(expected.add(key), set.add(key));
+            }
+            assertEquals(expected.size(), set.size());
+
+            if (op % 1000 == 0) {
+                for (int k = -40; k < 40; k++) {
+                    assertEquals(expected.contains(k), set.contains(k));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns keys whose probe starts at the slot of a set with {@link #CAPACITY} slots.
+     */
+    static int[] keysWithHome(int slot, int count) {
+        int[] keys = new int[count];
+        int found = 0;
+        for (int key = 1; found < count; key++) {
+            if (home(key, CAPACITY) == slot) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+
+    // The hash of IntSet and IntIntMap
+    private static int home(int key, int capacity) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (capacity - 1);
+    }
+}
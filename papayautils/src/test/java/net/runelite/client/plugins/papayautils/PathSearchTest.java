@@ -0,0 +1,139 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.CollisionDataFlag;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PathSearchTest {
+    private static final int X = 50;
+    private static final int Y = 50;
+
+    private int[][] flags;
+    private PathSearch search;
+
+    @Before
+    public void setUp() {
+        flags = new int[PathSearch.SIZE][PathSearch.SIZE];
+        search = new PathSearch();
+    }
+
+    @Test
+    public void openGridWalksDiagonally() {
+        search.search(flags, X, Y);
+
+        assertEquals(0, search.distance(X, Y));
+        assertEquals(1, search.distance(X + 1, Y + 1));
+        assertEquals(5, search.distance(X + 3, Y + 5));
+        assertEquals(50, search.distance(0, 0));
+    }
+
+    @Test
+    public void wallsOnEachSide() {
+        // A wall is flagged on the tile behind it, towards the tile it is walked into from
+        assertWalledOff(X - 1, Y, CollisionDataFlag.BLOCK_MOVEMENT_EAST);
+        assertWalledOff(X + 1, Y, CollisionDataFlag.BLOCK_MOVEMENT_WEST);
+        assertWalledOff(X, Y - 1, CollisionDataFlag.BLOCK_MOVEMENT_NORTH);
+        assertWalledOff(X, Y + 1, CollisionDataFlag.BLOCK_MOVEMENT_SOUTH);
+    }
+
+    private void assertWalledOff(int x, int y, int wall) {
+        flags = new int[PathSearch.SIZE][PathSearch.SIZE];
+        flags[x][y] = wall;
+        search.search(flags, X, Y);
+
+        // Around the end of the wall, neither diagonal may cut past it
+        assertEquals(3, search.distance(x, y));
+    }
+
+    @Test
+    public void diagonalNeedsBothOrthogonalSteps() {
+        flags[X - 1][Y] = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+        search.search(flags, X, Y);
+
+        assertEquals(-1, search.distance(X - 1, Y));
+        assertEquals(2, search.distance(X - 1, Y - 1));
+        assertEquals(2, search.distance(X - 1, Y + 1));
+        assertEquals(1, search.distance(X + 1, Y - 1));
+    }
+
+    @Test
+    public void diagonalBlockedByCornerWall() {
+        flags[X - 1][Y - 1] = CollisionDataFlag.BLOCK_MOVEMENT_NORTH_EAST;
+        search.search(flags, X, Y);
+
+        assertEquals(2, search.distance(X - 1, Y - 1));
+        assertEquals(1, search.distance(X + 1, Y + 1));
+    }
+
+    @Test
+    public void enclosedTileIsUnreachable() {
+        enclose(60, 60);
+        search.search(flags, X, Y);
+
+        assertEquals(-1, search.distance(60, 60));
+        assertEquals(-1, search.interactDistance(flags, 60, 60, 60, 60));
+        // The tiles round the enclosure stay reachable
+        assertEquals(9, search.distance(59, 58));
+    }
+
+    @Test
+    public void interactsFromTheSideWithoutWall() {
+        search.search(flags, 20, 10);
+        assertEquals(9, search.interactDistance(flags, 20, 20, 21, 21));
+
+        // A wall on the near side sends the player round to the west or east side
+        flags[20][19] = CollisionDataFlag.BLOCK_MOVEMENT_NORTH;
+        search.search(flags, 20, 10);
+        assertEquals(10, search.interactDistance(flags, 20, 20, 20, 20));
+
+        // Standing inside, e.g. on a walkable object
+        search.search(flags, 20, 20);
+        assertEquals(0, search.interactDistance(flags, 20, 20, 21, 21));
+    }
+
+    @Test
+    public void reusedBuffersMatchAFreshSearch() {
+        search.search(flags, 10, 10);
+        search.search(flags, 90, 90);
+
+        int[][] walled = new int[PathSearch.SIZE][PathSearch.SIZE];
+        for (int y = 0; y < PathSearch.SIZE; y++) {
+            walled[40][y] = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+        }
+        search.search(walled, X, Y);
+
+        PathSearch fresh = new PathSearch();
+        fresh.search(walled, X, Y);
+        for (int x = 0; x < PathSearch.SIZE; x++) {
+            for (int y = 0; y < PathSearch.SIZE; y++) {
+                assertEquals(x + ", " + y, fresh.distance(x, y), search.distance(x, y));
+            }
+        }
+        // Reached by the earlier searches, cut off by the wall now
+        assertEquals(-1, search.distance(10, 10));
+    }
+
+    @Test
+    public void straightDistanceToArea() {
+        assertEquals(0, PathSearch.straightDistance(5, 5, 4, 4, 6, 6));
+        assertEquals(3, PathSearch.straightDistance(0, 5, 3, 4, 6, 6));
+        assertEquals(4, PathSearch.straightDistance(10, 0, 4, 4, 6, 6));
+        assertTrue(PathSearch.inScene(0, PathSearch.SIZE - 1));
+        assertFalse(PathSearch.inScene(-1, 0));
+        assertFalse(PathSearch.inScene(0, PathSearch.SIZE));
+    }
+
+    private void enclose(int x, int y) {
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                if (dx != 0 || dy != 0) {
+                    flags[x + dx][y + dy] = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+                }
+            }
+        }
+    }
+}
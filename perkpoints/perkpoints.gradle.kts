@@ -28,6 +28,10 @@ version = "1.0.0"
 project.extra["PluginName"] = "Perk Points"
 project.extra["PluginDescription"] = "Papaya - Perk Points"
 
+dependencies {
+    compileOnly(project(":papayautils"))
+}
+
 tasks {
     jar {
         manifest {
@@ -35,6 +39,7 @@ tasks {
                 "Plugin-Version" to project.version,
                 "Plugin-Id" to nameToId(project.extra["PluginName"] as String),
                 "Plugin-Provider" to project.extra["PluginProvider"],
+                "Plugin-Dependencies" to arrayOf(nameToId("Papaya Utils")).joinToString(),
                 "Plugin-Description" to project.extra["PluginDescription"],
                 "Plugin-License" to project.extra["PluginLicense"]
             ))
@@ -6,13 +6,14 @@ import net.runelite.client.config.*;
 public interface PerkPointsConfig extends Config {
 
     @Range(min = 1)
+    // Keeps the old key, so a value set before the rename still applies
     @ConfigItem(
             keyName = "tickDelay",
-            name = "Tick Delay",
-            description = "How many ticks should pass before calculating next action",
+            name = "Retry Ticks",
+            description = "How many ticks to wait for a click to take effect, or for the next dialog page, before clicking again",
             position = 1
     )
-    default int tickDelay()
+    default int retryTicks()
     {
         return 2;
     }
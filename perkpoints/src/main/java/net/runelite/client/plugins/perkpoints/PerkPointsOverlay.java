@@ -14,7 +14,6 @@ import net.runelite.client.util.ColorUtil;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.awt.*;
-import java.time.Duration;
 import java.time.Instant;
 
 import static net.runelite.api.MenuAction.RUNELITE_OVERLAY_CONFIG;
@@ -24,50 +23,73 @@ import static org.apache.commons.lang3.time.DurationFormatUtils.formatDuration;
 @Slf4j
 @Singleton
 public class PerkPointsOverlay extends OverlayPanel {
+    private static final Color BACKGROUND_COLOR = ColorUtil.fromHex("#121212"); //Material Dark default
+    private static final Color TITLE_COLOR = ColorUtil.fromHex("#40C4FF");
+
     private final Client client;
     private final PerkPointsPlugin plugin;
-    private final PerkPointsConfig config;
-    String timeFormat;
+
+    // The panel keeps its children between frames, the table is only rebuilt when a value changes
+    private Instant shownStart;
+    private long shownSecond = -1;
+    private String shownStatus;
 
     @Inject
-    private PerkPointsOverlay(final Client client, final PerkPointsPlugin plugin, final PerkPointsConfig config)
+    private PerkPointsOverlay(final Client client, final PerkPointsPlugin plugin)
     {
         super(plugin);
         setPosition(OverlayPosition.BOTTOM_LEFT);
+        setClearChildren(false);
         this.client = client;
         this.plugin = plugin;
-        this.config = config;
         getMenuEntries().add(new OverlayMenuEntry(RUNELITE_OVERLAY_CONFIG, OPTION_CONFIGURE, "Perk Points Overlay"));
+
+        panelComponent.setBackgroundColor(BACKGROUND_COLOR);
+        panelComponent.setPreferredSize(new Dimension(220, 80));
+        panelComponent.setBorder(new Rectangle(5, 5, 5, 5));
+        panelComponent.getChildren().add(TitleComponent.builder()
+                .text("Papaya Perk Points")
+                .color(TITLE_COLOR)
+                .build());
     }
 
     @Override
     public Dimension render(Graphics2D graphics)
     {
-        if (!config.enableOverlay())
+        Instant start = plugin.startInstant;
+        if (!plugin.settings.isEnableOverlay() || start == null)
         {
             return null;
         }
 
+        long second = (System.currentTimeMillis() - start.toEpochMilli()) / 1000;
+        if (start != shownStart || second != shownSecond || !plugin.status.equals(shownStatus))
+        {
+            shownStart = start;
+            shownSecond = second;
+            shownStatus = plugin.status;
+            updateTable();
+        }
+        return super.render(graphics);
+    }
+
+    private void updateTable()
+    {
         TableComponent tableComponent = new TableComponent();
         tableComponent.setColumnAlignments(TableAlignment.LEFT, TableAlignment.RIGHT);
 
-        Duration duration = Duration.between(plugin.startInstant, Instant.now());
-        timeFormat = (duration.toHours() < 1) ? "mm:ss" : "HH:mm:ss";
-        tableComponent.addRow("Runtime:", formatDuration(duration.toMillis(), timeFormat));
-        tableComponent.addRow("Plugin State:", plugin.currentState.name());
-        tableComponent.addRow("Fetch Task Step:", plugin.fetchTaskStep.name());
+        long millis = Math.max(0, shownSecond) * 1000;
+        String timeFormat = (millis < 3_600_000) ? "mm:ss" : "HH:mm:ss";
+        tableComponent.addRow("Runtime:", formatDuration(millis, timeFormat));
+        tableComponent.addRow("Plugin State:", shownStatus);
 
-        if (!tableComponent.isEmpty())
+        if (panelComponent.getChildren().size() > 1)
+        {
+            panelComponent.getChildren().set(1, tableComponent);
+        }
+        else
         {
-            panelComponent.setBackgroundColor(ColorUtil.fromHex("#121212")); //Material Dark default
-            panelComponent.setPreferredSize(new Dimension(220, 80));
-            panelComponent.setBorder(new Rectangle(5, 5, 5, 5));
-            panelComponent.getChildren().add(TitleComponent.builder()
-                    .text("Papaya Perk Points")
-                    .color(ColorUtil.fromHex("#40C4FF"))
-                    .build());
             panelComponent.getChildren().add(tableComponent);
         }
-        return super.render(graphics);
     }
 }
@@ -1,29 +1,45 @@
 package net.runelite.client.plugins.perkpoints;
 
 import com.google.inject.Provides;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
-import net.runelite.api.coords.WorldPoint;
-import net.runelite.api.events.ChatMessage;
 import net.runelite.api.events.ConfigButtonClicked;
-import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetID;
 import net.runelite.api.widgets.WidgetInfo;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
+import net.runelite.client.plugins.PluginDependency;
 import net.runelite.client.plugins.PluginDescriptor;
-import net.runelite.client.plugins.perkpoints.enums.FetchTaskStep;
-import net.runelite.client.plugins.perkpoints.enums.PerkPointsState;
+import net.runelite.client.plugins.papayautils.ActionPlanner;
+import net.runelite.client.plugins.papayautils.ActionPriority;
+import net.runelite.client.plugins.papayautils.CheckpointStore;
+import net.runelite.client.plugins.papayautils.CompoundAction;
+import net.runelite.client.plugins.papayautils.HandlerProfiler;
+import net.runelite.client.plugins.papayautils.InventoryModel;
+import net.runelite.client.plugins.papayautils.ItemMatcher;
+import net.runelite.client.plugins.papayautils.ItemMatchers;
+import net.runelite.client.plugins.papayautils.MenuActionDispatcher;
+import net.runelite.client.plugins.papayautils.MenuIntent;
+import net.runelite.client.plugins.papayautils.NpcIndex;
+import net.runelite.client.plugins.papayautils.PapayaUtilsPlugin;
+import net.runelite.client.plugins.papayautils.SceneObjectIndex;
+import net.runelite.client.plugins.papayautils.SceneSnapshot;
+import net.runelite.client.plugins.papayautils.ScriptRuntime;
+import net.runelite.client.plugins.papayautils.SessionMetrics;
+import net.runelite.client.plugins.papayautils.TickContext;
+import net.runelite.client.plugins.papayautils.WidgetIndex;
 import net.runelite.client.ui.overlay.OverlayManager;
 import org.pf4j.Extension;
 
 import javax.inject.Inject;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
+import java.util.Properties;
 
 
 @Extension
@@ -33,11 +49,15 @@ import java.util.Optional;
         description = "Papaya - Perk Points",
         tags = {"papaya"}
 )
+@PluginDependency(PapayaUtilsPlugin.class)
 @Slf4j
 public class PerkPointsPlugin extends Plugin {
     @Inject
     private Client client;
 
+    @Inject
+    private MenuActionDispatcher dispatcher;
+
     @Inject
     private PerkPointsConfig config;
 
@@ -50,363 +70,427 @@ public class PerkPointsPlugin extends Plugin {
     @Inject
     private ConfigManager configManager;
 
+    @Inject
+    private SceneObjectIndex sceneObjectIndex;
+
+    @Inject
+    private ActionPlanner planner;
+
+    @Inject
+    private ItemMatchers itemMatchers;
+
+    @Inject
+    private InventoryModel inventory;
+
+    @Inject
+    private NpcIndex npcIndex;
+
+    @Inject
+    private WidgetIndex widgetIndex;
+
+    @Inject
+    private ScriptRuntime scripts;
+
+    @Inject
+    private SessionMetrics metrics;
+
+    @Inject
+    private TickContext tickContext;
+
+    @Inject
+    private CheckpointStore checkpoints;
+
+    @Inject
+    private HandlerProfiler profiler;
+
 
 
-    private int tickCounter = 0;
-    private int tickDelay = 2;
-    private int minBars = 2;
+    private static final String TASK_COMPLETED = "You have completed your perk task and received";
+    private static final String CHECKPOINT = "perkpoints";
+
+    // Ticks to wait for an interaction that involves walking before clicking again
+    private static final int WALK_TIMEOUT = 10;
+
     private boolean started = false;
+    private Disposable script;
+
+    // Swapped as a whole on config changes, read by the script and the overlay
+    volatile PerkPointsSettings settings;
 
-    PerkPointsState currentState = PerkPointsState.FETCH_TASK;
-    FetchTaskStep fetchTaskStep = FetchTaskStep.CLICK_NPC;
+    volatile String status = "Idle";
+
+    // Whether a task has been fetched and not completed yet, checkpointed so a restart skips fetching
+    private volatile boolean onTask;
     Instant startInstant;
 
+    private ItemMatcher adamantiteBars;
+    private ItemMatcher adamantHelms;
+
+    private SessionMetrics.Counter helmsSmithed;
+    private SessionMetrics.Counter tasksCompleted;
+    private int helmCount;
+
     @Provides
     PerkPointsConfig provideConfig(ConfigManager configManager)
     {
         return configManager.getConfig(PerkPointsConfig.class);
     }
 
+    @Override
+    protected void startUp()
+    {
+        adamantiteBars = itemMatchers.nameEquals("Adamantite bar");
+        adamantHelms = itemMatchers.nameEquals("Adamant full helm");
+        settings = PerkPointsSettings.of(config);
+        helmsSmithed = metrics.counter("perkpoints", "helms_smithed", "Helms smithed");
+        tasksCompleted = metrics.counter("perkpoints", "tasks_completed", "Perk tasks completed");
+        helmCount = inventory.getCount(adamantHelms);
+
+        Properties checkpoint = checkpoints.restore(CHECKPOINT);
+        onTask = Boolean.parseBoolean(checkpoint.getProperty("onTask"));
+        checkpoints.track(CHECKPOINT, this::checkpointState);
+    }
 
-    @Subscribe
-    private void onConfigButtonPressed(ConfigButtonClicked event)
+    @Override
+    protected void shutDown()
     {
-        if (!event.getGroup().equalsIgnoreCase("PerkPoints"))
-        {
-            return;
-        }
-        if (event.getKey().equals("startButton"))
-        {
-            if (!started)
-            {
-                log.debug("Starting plugin...");
-                if (client == null || client.getLocalPlayer() == null || client.getGameState() != GameState.LOGGED_IN)
-                {
-                    log.info("Startup failed: log-in before starting");
-                    return;
-                }
+        stopScript();
+        checkpoints.untrack(CHECKPOINT);
+    }
 
-                tickDelay = config.tickDelay();
-                minBars = config.minBars();
-                if(config.startTask()) {
-                    currentState = PerkPointsState.SMITHING;
-                    fetchTaskStep = FetchTaskStep.SELECTED;
-                }
-                startInstant = Instant.now();
-                overlayManager.add(overlay);
-                started = true;
-            }
-            else
+    private Properties checkpointState()
+    {
+        Properties state = new Properties();
+        state.setProperty("onTask", Boolean.toString(onTask));
+        return state;
+    }
+
+    @Subscribe
+    private void onConfigChanged(ConfigChanged event)
+    {
+        profiler.time(PerkPointsPlugin.class, "onConfigChanged", () -> {
+            if (event.getGroup().equals("PerkPoints"))
             {
-                overlayManager.remove(overlay);
-                currentState = PerkPointsState.FETCH_TASK;
-                fetchTaskStep = FetchTaskStep.CLICK_NPC;
-                startInstant = null;
-                started = false;
+                settings = PerkPointsSettings.of(config);
             }
-        }
+        });
     }
 
-    @Subscribe
-    public void onGameTick(GameTick event) {
-        if(!started) return;
-
-        tickCounter++;
-        if (tickCounter >= tickDelay) {
-            switch (currentState) {
-                case FETCH_TASK:
-                    handleFetchTask();
-                    break;
-                case SMITHING:
-                    handleSmithing();
-                    break;
-                case RESTOCKING:
-                    handleRestocking();
-                    break;
+
+    // After the inventory model, so the count includes this change
+    @Subscribe(priority = -1)
+    private void onItemContainerChanged(ItemContainerChanged event) {
+        profiler.time(PerkPointsPlugin.class, "onItemContainerChanged", () -> {
+            if (event.getContainerId() == InventoryID.INVENTORY.getId()) {
+                // Helms only enter the inventory from the anvil, banking only takes them out
+                int helms = inventory.getCount(adamantHelms);
+                if (started && helms > helmCount) {
+                    helmsSmithed.add(helms - helmCount);
+                }
+                helmCount = helms;
             }
-            tickCounter = 0;
-        }
+        });
     }
 
     @Subscribe
-    private void onChatMessage(ChatMessage event) {
-        String completionChatMessage = "You have completed your perk task and received";
-        if (event.getMessage().contains(completionChatMessage)) {
-            log.info("Perk Task complete!");
-            currentState = PerkPointsState.FETCH_TASK;
-            fetchTaskStep = FetchTaskStep.CLICK_NPC;
-        }
-    }
+    private void onConfigButtonPressed(ConfigButtonClicked event)
+    {
+        profiler.time(PerkPointsPlugin.class, "onConfigButtonPressed", () -> {
+            if (!event.getGroup().equalsIgnoreCase("PerkPoints"))
+            {
+                return;
+            }
+            if (event.getKey().equals("startButton"))
+            {
+                if (!started)
+                {
+                    log.debug("Starting plugin...");
+                    if (client == null || client.getLocalPlayer() == null || client.getGameState() != GameState.LOGGED_IN)
+                    {
+                        log.info("Startup failed: log-in before starting");
+                        return;
+                    }
 
-    private void handleFetchTask() {
-        switch (fetchTaskStep) {
-            case CLICK_NPC:
-                if (interactWithNpc("Perk Master", "Get-task", MenuAction.NPC_THIRD_OPTION)) {
-                    fetchTaskStep = FetchTaskStep.SELECT_TASK_TYPE;
-                    log.info("Clicked on NPC, waiting for dialog...");
-                }
-                break;
-            case SELECT_TASK_TYPE:
-                if (selectDialogOption("Skilling")) {
-                    fetchTaskStep = FetchTaskStep.SELECT_DIFFICULTY;
-                    log.info("Selected Skilling");
+                    overlayManager.add(overlay);
+                    start();
                 }
-                break;
-            case SELECT_DIFFICULTY:
-                if (selectDialogOption("Elite")) {
-                    fetchTaskStep = FetchTaskStep.SELECT_TASK;
-                    log.info("Selected Elite difficulty");
-                }
-                break;
-            case SELECT_TASK:
-                if (selectDialogOption("Adamant full helm")) {
-                    fetchTaskStep = FetchTaskStep.SELECTED;
-                    log.info("Selected Adamant full helm");
+                else
+                {
+                    overlayManager.remove(overlay);
+                    stop();
                 }
-                break;
-            case SELECTED:
-                currentState = PerkPointsState.SMITHING;
-                log.info("Changing state to smithing");
-                break;
-        }
+            }
+        });
     }
 
-    private void handleSmithing() {
-        if (!isPlayerIdle()) {
-            log.info("Player is busy");
-            return;
-        }
-
-        if (getInventoryCount("Adamantite bar") < minBars) {
-            currentState = PerkPointsState.RESTOCKING;
-            log.info("Changing state to restocking");
-            return;
-        }
-
-        Widget smithingWidget = client.getWidget(WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER.getId());
-
-        if (smithingWidget == null) {
-            interactWithClosestGameObject("Anvil", "Smith", MenuAction.GAME_OBJECT_FIRST_OPTION);
-            log.info("Interacting with anvil");
-        } else {
-            smithItem("Adamant full helm");
+    /**
+     * Starts working on perk tasks, as the start button does once the player is logged in. Public
+     * for simulated runs, which have no config panel or overlay.
+     */
+    public void start()
+    {
+        startInstant = Instant.now();
+        startScript();
+        started = true;
+    }
 
-            log.info("Smithing helms");
-        }
+    public void stop()
+    {
+        stopScript();
+        status = "Idle";
+        startInstant = null;
+        started = false;
     }
 
-    private void handleRestocking() {
-        if (!isPlayerIdle()) {
-            log.info("Player is busy");
-            return;
-        }
+    private void startScript()
+    {
+        stopScript();
 
-        Widget bankItemContainer = client.getWidget(WidgetInfo.BANK_ITEM_CONTAINER.getId());
+        // Each round is built when it starts, so it uses the settings of that moment
+        Completable rounds = Completable.defer(() -> Completable.concatArray(fetchTask(), completeTask())).repeat();
+        Completable resume = Completable.defer(() -> isOnTask() ? completeTask() : Completable.complete());
+        script = scripts.run("PerkPoints", resume.andThen(rounds));
+    }
 
-        if(bankItemContainer == null) {
-            interactWithClosestGameObject("Bank", "Use", MenuAction.GAME_OBJECT_FIRST_OPTION);
-            log.info("Opening Bank");
-            return;
+    /**
+     * Whether the current task should be worked on rather than a new one fetched: when told so, or
+     * when the world shows one, i.e. the smithing interface is open or smithed helms are in the
+     * inventory. The checkpoint of an earlier run is only a hint, with it bars in the inventory are
+     * enough. A task may have been finished or dropped while the plugin was off, so a checkpoint
+     * without any of these is discarded.
+     */
+    private boolean isOnTask()
+    {
+        if (settings.isStartTask())
+        {
+            return true;
         }
 
-        int helmCount = getInventoryCount("Adamant full helm");
-
-        if(helmCount != 0) {
-            depositAllItemToBank("Adamant full helm");
-            log.info("Depositing helms");
-            return;
+        boolean working = client.getWidget(WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER.getId()) != null
+                || inventory.getCount(adamantHelms) > 0
+                || onTask && inventory.getCount(adamantiteBars) > 0;
+        if (working)
+        {
+            log.info("Resuming the perk task in progress");
         }
-
-        int barCount = getInventoryCount("Adamantite bar");
-
-        if(barCount != 26) {
-            withdrawAllItemFromBank("Adamantite bar");
-            log.info("Withdrawing bars");
-            return;
+        else if (onTask)
+        {
+            log.info("Nothing shows the checkpointed task is still in progress, fetching a new one");
+            onTask = false;
         }
-
-        currentState = PerkPointsState.SMITHING;
-
+        return working;
     }
 
+    private Completable setOnTask(boolean onTask)
+    {
+        return scripts.step(() -> {
+            this.onTask = onTask;
+            checkpoints.checkpoint(CHECKPOINT);
+        });
+    }
 
-    private boolean smithItem(String itemName) {
-        Widget smithingWidget = client.getWidget(WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER.getId());
-        if (smithingWidget == null || smithingWidget.getStaticChildren() == null) {
-            log.info("Smithing interface is not open.");
-            return false;
+    private void stopScript()
+    {
+        if (script != null)
+        {
+            script.dispose();
+            script = null;
         }
+    }
 
-        for (Widget itemWidget : smithingWidget.getStaticChildren()) {
-            if (itemWidget != null && itemWidget.getName().toLowerCase().contains(itemName.toLowerCase())) {
-
+    private Completable fetchTask() {
+        return Completable.concatArray(
+                status("Fetching task"),
+                scripts.open(WidgetInfo.DIALOG_OPTION_OPTIONS,
+                        () -> interactWithNpc("Perk Master", "Get-task", MenuAction.NPC_THIRD_OPTION), WALK_TIMEOUT),
+                chooseDialogOptions("Skilling", "Elite", "Adamant full helm"),
+                setOnTask(true));
+    }
 
-                client.invokeMenuAction(
-                        "Smith",
-                        itemWidget.getName(),
-                        1,
-                        MenuAction.CC_OP.getId(),
-                        -1,
-                        itemWidget.getId()
-                );
-                log.info("Selected '{}' to smith.", itemName);
-                return true;
+    /**
+     * Chooses the options in turn, starting at the latest one the open dialog shows, so a dialog
+     * left half way by a restart is continued instead of clicked through from the start.
+     */
+    private Completable chooseDialogOptions(String... options) {
+        return Completable.defer(() -> {
+            int first = 0;
+            for (int i = options.length - 1; i > 0; i--) {
+                if (widgetIndex.findByText(WidgetInfo.DIALOG_OPTION_OPTIONS, options[i]) != null) {
+                    first = i;
+                    break;
+                }
             }
 
-        }
-        log.error("Item '{}' not found in smithing interface.", itemName);
-        return false;
+            Completable choices = Completable.complete();
+            for (int i = first; i < options.length; i++) {
+                choices = choices.andThen(chooseDialogOption(options[i]));
+            }
+            return choices;
+        });
     }
 
-    private boolean isPlayerIdle() {
-        Player localPlayer = client.getLocalPlayer();
-        return localPlayer.getAnimation() == -1 &&
-                localPlayer.getInteracting() == null;
+    private Completable chooseDialogOption(String option) {
+        // Continues on the next page of the dialog, or after the retry ticks once the last choice closed it
+        return scripts.attempt(() -> selectDialogOption(option))
+                .andThen(scripts.within(scripts.widgetLoaded(WidgetID.DIALOG_OPTION_GROUP_ID), settings.getRetryTicks())
+                        .ignoreElement());
     }
 
-    private List<GameObject> getNearbyGameObjects() {
-        List<GameObject> gameObjects = new ArrayList<>();
-        Scene scene = client.getScene();
-        if (scene == null) {
-            log.error("Scene is null. Cannot retrieve game objects.");
-            return gameObjects;
-        }
+    private Completable completeTask() {
+        Completable work = Completable.defer(() -> inventory.getCount(adamantiteBars) < settings.getMinBars()
+                ? restock()
+                : smith());
+        return Completable.ambArray(scripts.chatMessage(TASK_COMPLETED), work.repeat())
+                .andThen(scripts.step(() -> {
+                    log.info("Perk Task complete!");
+                    tasksCompleted.increment();
+                }))
+                .andThen(setOnTask(false));
+    }
 
-        Tile[][][] tiles = scene.getTiles();
-        if (tiles == null) {
-            log.error("Tiles are null. Cannot retrieve game objects.");
-            return gameObjects;
-        }
+    private Completable smith() {
+        int retry = settings.getRetryTicks();
+        return Completable.concatArray(
+                status("Smithing"),
+                scripts.idle(),
+                scripts.open(WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER,
+                        () -> interactWithClosestGameObject("Anvil", "Smith", MenuAction.GAME_OBJECT_FIRST_OPTION), WALK_TIMEOUT),
+                scripts.attempt(() -> smithItem("Adamant full helm"),
+                        scripts.until(() -> client.getWidget(WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER.getId()) == null), retry),
+                // The animation starts a moment after the interface closed
+                scripts.within(scripts.until(() -> !tickContext.isIdle()), retry).ignoreElement());
+    }
 
-        int plane = client.getPlane();
-        for (int x = 0; x < tiles[plane].length; x++) {
-            for (int y = 0; y < tiles[plane][x].length; y++) {
-                Tile tile = tiles[plane][x][y];
-                if (tile == null) continue;
-
-                GameObject[] objects = tile.getGameObjects();
-                if (objects != null) {
-                    for (GameObject object : objects) {
-                        if (object != null) {
-                            gameObjects.add(object);
-                        }
-                    }
-                }
-            }
-        }
+    private Completable restock() {
+        int retry = settings.getRetryTicks();
+        return Completable.concatArray(
+                status("Restocking"),
+                scripts.idle(),
+                scripts.open(WidgetInfo.BANK_ITEM_CONTAINER,
+                        () -> interactWithClosestGameObject("Bank", "Use", MenuAction.GAME_OBJECT_FIRST_OPTION), WALK_TIMEOUT),
+                // Deposit and withdraw go out in the same tick, the server applies them in order
+                scripts.perform(ActionPriority.INTERFACE, CompoundAction.create()
+                                .then(() -> depositAll(adamantHelms), () -> inventory.getCount(adamantHelms) == 0)
+                                .then(() -> withdrawAll(adamantiteBars), () -> inventory.getCount(adamantiteBars) >= settings.getMinBars()),
+                        retry));
+    }
 
-        return gameObjects;
+    private Completable status(String status) {
+        return scripts.step(() -> {
+            this.status = status;
+            log.info(status);
+        });
     }
 
-    private boolean interactWithClosestGameObject(String objectName, String actionName, MenuAction menuAction) {
-        Optional<GameObject> optionalGameObject = getNearbyGameObjects().stream()
-                .filter(obj -> obj.getName().toLowerCase().contains(objectName.toLowerCase()))
-                .min(Comparator.comparingInt(obj -> {
-                    WorldPoint playerLocation = client.getLocalPlayer().getWorldLocation();
-                    return playerLocation.distanceTo(obj.getWorldLocation());
-                }));
-
-        if (optionalGameObject.isEmpty()) {
-            log.info("GameObject with name {} not found.", objectName);
+    private boolean smithItem(String itemName) {
+        if (client.getWidget(WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER.getId()) == null) {
+            log.info("Smithing interface is not open.");
             return false;
         }
 
-        GameObject object = optionalGameObject.get();
+        Widget itemWidget = widgetIndex.findByName(WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER, itemName);
+        if (itemWidget == null) {
+            log.error("Item '{}' not found in smithing interface.", itemName);
+            return false;
+        }
 
-        client.invokeMenuAction(
-                actionName,
-                object.getName(),
-                object.getId(),
-                menuAction.getId(),
-                object.getSceneMinLocation().getX(),
-                object.getSceneMinLocation().getY()
+        dispatcher.submit(
+                ActionPriority.INTERFACE,
+                "Smith",
+                itemWidget.getName(),
+                1,
+                MenuAction.CC_OP.getId(),
+                -1,
+                itemWidget.getId()
         );
-        log.info("Interacting with GameObject '{}' using action '{}'", objectName, actionName);
+        log.info("Selected '{}' to smith.", itemName);
         return true;
-
     }
 
-    private int getInventoryCount(String itemName) {
-        ItemContainer inventory = client.getItemContainer(InventoryID.INVENTORY);
-        if (inventory == null) {
-            log.warn("Inventory is not accessible.");
-            return -1;
-        }
-
-        Item[] items = inventory.getItems();
-        int count = 0;
-        for (Item item : items) {
-            if (item != null) {
-                String itemInInventoryName = client.getItemDefinition(item.getId()).getName();
-                if (itemName.equalsIgnoreCase(itemInInventoryName)) {
-                    count += item.getQuantity();
-                }
+    private boolean interactWithClosestGameObject(String objectName, String actionName, MenuAction menuAction) {
+        // The nearest object is searched for off the client thread and interacted with once found
+        return planner.submit("PerkPoints." + objectName, () -> sceneObjectIndex.snapshot(objectName), SceneSnapshot::nearest, object -> {
+            if (object == null) {
+                log.info("GameObject with name {} not found.", objectName);
+                return;
             }
-        }
-        return count;
+
+            dispatcher.submit(
+                    ActionPriority.INTERACT,
+                    actionName,
+                    object.getName(),
+                    object.getId(),
+                    menuAction.getId(),
+                    object.getMinX(),
+                    object.getMinY()
+            );
+            log.info("Interacting with GameObject '{}' using action '{}'", objectName, actionName);
+        });
     }
 
-    void depositAllItemToBank(String itemName) {
+    /**
+     * Returns the action depositing all items accepted by the matcher, or null while the bank is not ready.
+     */
+    MenuIntent depositAll(ItemMatcher matcher) {
         Widget bankInventory = client.getWidget(WidgetInfo.BANK_INVENTORY_ITEMS_CONTAINER.getId());
-        if (bankInventory == null || bankInventory.getDynamicChildren() == null) {
-            log.error("Bank inventory is not accessible.");
-            return;
+        if (bankInventory == null) {
+            log.debug("Bank inventory is not accessible.");
+            return null;
         }
-        Widget[] items = bankInventory.getDynamicChildren();
-        for (int i = 0; i < items.length; i++) {
-
-            if (items[i] != null && items[i].getName().toLowerCase().contains(itemName.toLowerCase())) {
-                client.invokeMenuAction(
-                        "Deposit-All",
-                        items[i].getName(),
-                        2,
-                        MenuAction.CC_OP.getId(),
-                        i,
-                        bankInventory.getId()
-                );
-                log.info("Deposited all of '{}'", itemName);
-                return;
-            }
+
+        Widget item = widgetIndex.findItem(WidgetInfo.BANK_INVENTORY_ITEMS_CONTAINER, matcher);
+        if (item == null) {
+            return null;
         }
+
+        log.info("Depositing all of '{}'", item.getName());
+        return MenuIntent.of(
+                "Deposit-All",
+                item.getName(),
+                2,
+                MenuAction.CC_OP.getId(),
+                item.getIndex(),
+                bankInventory.getId()
+        );
     }
 
-    void withdrawAllItemFromBank(String itemName) {
+    /**
+     * Returns the action withdrawing all of the first item accepted by the matcher, or null while it is not in the bank interface.
+     */
+    MenuIntent withdrawAll(ItemMatcher matcher) {
         Widget bankItemContainer = client.getWidget(WidgetInfo.BANK_ITEM_CONTAINER.getId());
-        if (bankItemContainer == null || bankItemContainer.getDynamicChildren() == null) {
-            log.error("Bank is not open or item container is inaccessible.");
-            return;
+        if (bankItemContainer == null) {
+            log.debug("Bank is not open or item container is inaccessible.");
+            return null;
         }
-        Widget[] items = bankItemContainer.getDynamicChildren();
-
-        for (int i = 0; i < items.length; i++) {
-            if (items[i] != null && items[i].getName().toLowerCase().contains(itemName.toLowerCase())) {
-                client.invokeMenuAction(
-                        "Withdraw-All",
-                        items[i].getName(),
-                        1,
-                        MenuAction.CC_OP.getId(),
-                        i,
-                        bankItemContainer.getId()
-                );
-                log.info("Withdrew all of '{}'", itemName);
-                return;
-            }
+
+        Widget item = widgetIndex.findItem(WidgetInfo.BANK_ITEM_CONTAINER, matcher);
+        if (item == null) {
+            log.debug("Item not found in bank");
+            return null;
         }
-        log.info("Item {} not found", itemName);
+
+        log.info("Withdrawing all of '{}'", item.getName());
+        return MenuIntent.of(
+                "Withdraw-All",
+                item.getName(),
+                1,
+                MenuAction.CC_OP.getId(),
+                item.getIndex(),
+                bankItemContainer.getId()
+        );
     }
 
     private boolean interactWithNpc(String npcName, String actionName, MenuAction menuAction) {
-        Optional<NPC> optionalNPC = client.getNpcs().stream()
-                .filter(n -> n.getName() != null && n.getName().toLowerCase().contains(npcName.toLowerCase()))
-                .findFirst();
+        NPC npc = npcIndex.getNearest(npcName);
 
-        if (optionalNPC.isEmpty()) {
+        if (npc == null) {
             log.info("Could not find NPC: {}", npcName);
             return false;
         }
 
-        NPC npc = optionalNPC.get();
-        client.invokeMenuAction(
+        dispatcher.submit(
+                ActionPriority.INTERACT,
                 actionName,
                 npc.getName(),
                 npc.getIndex(),
@@ -420,29 +504,27 @@ public class PerkPointsPlugin extends Plugin {
     }
 
     private boolean selectDialogOption(String option) {
-        Widget dialogOptionsWidget = client.getWidget(WidgetInfo.DIALOG_OPTION_OPTIONS.getId());
-        if (dialogOptionsWidget != null && dialogOptionsWidget.getDynamicChildren() != null) {
-            Widget[] options = dialogOptionsWidget.getDynamicChildren();
-
-            for (int i = 0; i < options.length; i++) {
-                if (options[i].getText() != null
-                        && options[i].getText().toLowerCase().contains(option.toLowerCase())) {
-                    client.invokeMenuAction(
-                            "Continue",
-                            "",
-                            -1,
-                            MenuAction.WIDGET_CONTINUE.getId(),
-                            i,
-                            14352385
-                    );
-                    log.info("Selected dialog option {}", option);
-                    return true;
-                }
-            }
-            log.info("Could not find dialog option {}", option);
-        } else {
+        if (client.getWidget(WidgetInfo.DIALOG_OPTION_OPTIONS.getId()) == null) {
             log.error("Dialog options widget not found.");
+            return false;
         }
-        return false;
+
+        Widget optionWidget = widgetIndex.findByText(WidgetInfo.DIALOG_OPTION_OPTIONS, option);
+        if (optionWidget == null) {
+            log.info("Could not find dialog option {}", option);
+            return false;
+        }
+
+        dispatcher.submit(
+                ActionPriority.INTERFACE,
+                "Continue",
+                "",
+                -1,
+                MenuAction.WIDGET_CONTINUE.getId(),
+                optionWidget.getIndex(),
+                14352385
+        );
+        log.info("Selected dialog option {}", option);
+        return true;
     }
 }
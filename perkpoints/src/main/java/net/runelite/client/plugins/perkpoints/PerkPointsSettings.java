@@ -0,0 +1,26 @@
+package net.runelite.client.plugins.perkpoints;
+
+import lombok.Value;
+
+/**
+ * Immutable snapshot of {@link PerkPointsConfig}, replaced as a whole when the config changes
+ * so a running session picks up new values on its next tick.
+ */
+@Value
+class PerkPointsSettings
+{
+    int retryTicks;
+    int minBars;
+    boolean startTask;
+    boolean enableOverlay;
+
+    static PerkPointsSettings of(PerkPointsConfig config)
+    {
+        // Values edited outside the config panel are not bound by @Range
+        return new PerkPointsSettings(
+                Math.max(1, config.retryTicks()),
+                Math.max(2, config.minBars()),
+                config.startTask(),
+                config.enableOverlay());
+    }
+}
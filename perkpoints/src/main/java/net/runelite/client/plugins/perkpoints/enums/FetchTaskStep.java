@@ -1,9 +0,0 @@
-package net.runelite.client.plugins.perkpoints.enums;
-
-public enum FetchTaskStep {
-    CLICK_NPC,
-    SELECT_TASK_TYPE,
-    SELECT_DIFFICULTY,
-    SELECT_TASK,
-    SELECTED
-}
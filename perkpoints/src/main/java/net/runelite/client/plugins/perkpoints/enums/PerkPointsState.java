@@ -1,9 +0,0 @@
-package net.runelite.client.plugins.perkpoints.enums;
-
-public enum PerkPointsState {
-    FETCH_TASK,
-    SMITHING,
-    RESTOCKING,
-}
-
-
@@ -31,12 +31,15 @@
 rootProject.name = "Papaya Plugins"
 
 
+include(":papayautils")
 include(":autohonourguard")
 include(":perkpoints")
 include(":debugger")
 include(":autoprayer")
 include(":autowhisperer")
 include(":autoprayerpot")
+include(":testkit")
+include(":benchmarks")
 
 
 
@@ -0,0 +1,132 @@
+package net.runelite.client.plugins.testkit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds in-memory stand-ins for client api interfaces. Only the methods given an answer do
+ * something; every other method returns null, false or zero, which is what the client returns
+ * for things that are not loaded.
+ *
+ * <pre>
+ * NPC npc = Fake.of(NPC.class)
+ *     .answer("getId", 12077)
+ *     .answer("getName", "The Whisperer")
+ *     .build();
+ * </pre>
+ */
+public final class Fake<T> {
+    private final Class<T> type;
+    private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+    private Fake(Class<T> type) {
+        this.type = type;
+    }
+
+    public static <T> Fake<T> of(Class<T> type) {
+        return new Fake<>(type);
+    }
+
+    /**
+     * Answers every call to the named method, whatever its arguments, with the value.
+     */
+    public Fake<T> answer(String method, Object value) {
+        answers.put(method, args -> value);
+        return this;
+    }
+
+    /**
+     * Answers every call to the named method with the result of the function, which gets the call arguments.
+     */
+    public Fake<T> answer(String method, Function<Object[], Object> answer) {
+        answers.put(method, answer);
+        return this;
+    }
+
+    public T build() {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>(this.answers);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args == null ? new Object[0] : args);
+            }
+
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Fake " + type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+            }
+            return defaultValue(method.getReturnType());
+        }));
+    }
+
+    /**
+     * Returns a config whose items all return their declared default.
+     */
+    public static <T> T config(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.isDefault()) {
+                return MethodHandles.privateLookupIn(type, MethodHandles.lookup())
+                        .unreflectSpecial(method, type)
+                        .bindTo(proxy)
+                        .invokeWithArguments(args);
+            }
+            if (method.getName().equals("toString")) {
+                return "Fake " + type.getSimpleName();
+            }
+            return defaultValue(method.getReturnType());
+        }));
+    }
+
+    /**
+     * Allocates an instance without running any constructor. Meant for client services a plugin
+     * injects but does not touch on the code paths being simulated; calling into one fails.
+     */
+    public static <T> T uninitialized(Class<T> type) {
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            Method allocateInstance = unsafe.getClass().getMethod("allocateInstance", Class.class);
+            return type.cast(allocateInstance.invoke(unsafe, type));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to allocate " + type.getName(), e);
+        }
+    }
+
+    static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,206 @@
+package net.runelite.client.plugins.testkit;
+
+import lombok.Getter;
+import lombok.Setter;
+import net.runelite.api.Actor;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.InventoryID;
+import net.runelite.api.Item;
+import net.runelite.api.ItemComposition;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.Prayer;
+import net.runelite.api.Scene;
+import net.runelite.api.Skill;
+import net.runelite.api.Tile;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.plugins.papayautils.MenuIntent;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mutable game state behind a fake {@link Client}. Plugins read it through {@link #getClient()},
+ * the simulation changes it directly, and every menu action the plugins invoke is recorded
+ * instead of being sent anywhere.
+ */
+public class FakeClient {
+    public static final int SCENE_SIZE = 104;
+
+    @Getter
+    private final Client client;
+
+    @Getter
+    private final Player localPlayer;
+
+    @Getter
+    private final Scene scene;
+
+    @Getter
+    @Setter
+    private int tickCount;
+
+    @Getter
+    @Setter
+    private int gameCycle;
+
+    @Getter
+    @Setter
+    private GameState gameState = GameState.LOGGED_IN;
+
+    @Getter
+    @Setter
+    private WorldPoint playerLocation = new WorldPoint(3200, 3200, 0);
+
+    // World coordinates of scene tile 0, 0; the player starts in the middle of the scene
+    @Getter
+    @Setter
+    private int baseX = 3200 - 52;
+
+    @Getter
+    @Setter
+    private int baseY = 3200 - 52;
+
+    @Getter
+    @Setter
+    private int playerAnimation = -1;
+
+    @Getter
+    @Setter
+    private Actor playerInteracting;
+
+    @Getter
+    private final List<NPC> npcs = new ArrayList<>();
+
+    @Getter
+    private final Set<Prayer> activePrayers = EnumSet.noneOf(Prayer.class);
+
+    private final Tile[][][] tiles = new Tile[4][SCENE_SIZE][SCENE_SIZE];
+    private final Map<Integer, ItemContainer> containers = new HashMap<>();
+    private final Map<Integer, Widget> widgets = new HashMap<>();
+    private final Map<Integer, String> itemNames = new HashMap<>();
+    private final Map<Integer, ItemComposition> itemDefinitions = new HashMap<>();
+    private final int[] boostedLevels = new int[Skill.values().length];
+    private final int[] realLevels = new int[Skill.values().length];
+
+    @Getter
+    private final List<RecordedAction> actions = new ArrayList<>();
+
+    public FakeClient() {
+        for (Skill skill : Skill.values()) {
+            boostedLevels[skill.ordinal()] = 99;
+            realLevels[skill.ordinal()] = 99;
+        }
+
+        localPlayer = Fake.of(Player.class)
+                .answer("getName", "Papaya")
+                .answer("getWorldLocation", args -> playerLocation)
+                .answer("getAnimation", args -> playerAnimation)
+                .answer("getInteracting", args -> playerInteracting)
+                .build();
+
+        scene = Fake.of(Scene.class)
+                .answer("getTiles", tiles)
+                .build();
+
+        client = Fake.of(Client.class)
+                .answer("isClientThread", true)
+                .answer("getTickCount", args -> tickCount)
+                .answer("getGameCycle", args -> gameCycle)
+                .answer("getGameState", args -> gameState)
+                .answer("getPlane", args -> playerLocation.getPlane())
+                .answer("getBaseX", args -> baseX)
+                .answer("getBaseY", args -> baseY)
+                .answer("getLocalPlayer", args -> localPlayer)
+                .answer("getNpcs", args -> npcs)
+                .answer("getScene", scene)
+                .answer("getItemContainer", args -> containers.get(args[0] instanceof InventoryID
+                        ? ((InventoryID) args[0]).getId() : (Integer) args[0]))
+                .answer("getWidget", this::getWidget)
+                .answer("getItemDefinition", args -> getItemDefinition((Integer) args[0]))
+                .answer("isPrayerActive", args -> activePrayers.contains((Prayer) args[0]))
+                .answer("getBoostedSkillLevel", args -> boostedLevels[((Skill) args[0]).ordinal()])
+                .answer("getRealSkillLevel", args -> realLevels[((Skill) args[0]).ordinal()])
+                .answer("getBoostedSkillLevels", boostedLevels)
+                .answer("getRealSkillLevels", realLevels)
+                .answer("invokeMenuAction", args -> {
+                    actions.add(new RecordedAction(tickCount, MenuIntent.of((String) args[0], (String) args[1],
+                            (Integer) args[2], (Integer) args[3], (Integer) args[4], (Integer) args[5])));
+                    return null;
+                })
+                .build();
+    }
+
+    public Tile getTile(int plane, int sceneX, int sceneY) {
+        return tiles[plane][sceneX][sceneY];
+    }
+
+    public void setTile(int plane, int sceneX, int sceneY, Tile tile) {
+        tiles[plane][sceneX][sceneY] = tile;
+    }
+
+    public void setItemName(int itemId, String name) {
+        itemNames.put(itemId, name);
+        itemDefinitions.remove(itemId);
+    }
+
+    /**
+     * Replaces the items of a container; ids of -1 are empty slots.
+     */
+    public ItemContainer setContainer(InventoryID inventory, int[] itemIds, int[] quantities) {
+        Item[] items = new Item[itemIds.length];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item(itemIds[i], itemIds[i] == -1 ? 0 : quantities[i]);
+        }
+
+        ItemContainer container = Fake.of(ItemContainer.class)
+                .answer("getId", inventory.getId())
+                .answer("getItems", items)
+                .answer("getItem", args -> {
+                    int slot = (Integer) args[0];
+                    return slot < 0 || slot >= items.length || items[slot].getId() == -1 ? null : items[slot];
+                })
+                .build();
+        containers.put(inventory.getId(), container);
+        return container;
+    }
+
+    public void setWidget(WidgetInfo info, Widget widget) {
+        if (widget == null) {
+            widgets.remove(info.getId());
+        } else {
+            widgets.put(info.getId(), widget);
+        }
+    }
+
+    public void setSkill(Skill skill, int boosted, int real) {
+        boostedLevels[skill.ordinal()] = boosted;
+        realLevels[skill.ordinal()] = real;
+    }
+
+    private Object getWidget(Object[] args) {
+        if (args[0] instanceof WidgetInfo) {
+            return widgets.get(((WidgetInfo) args[0]).getId());
+        }
+        if (args.length == 2) {
+            return widgets.get((Integer) args[0] << 16 | (Integer) args[1]);
+        }
+        return widgets.get((Integer) args[0]);
+    }
+
+    private ItemComposition getItemDefinition(int itemId) {
+        return itemDefinitions.computeIfAbsent(itemId, id -> Fake.of(ItemComposition.class)
+                .answer("getId", id)
+                .answer("getName", itemNames.getOrDefault(id, "null"))
+                .answer("getNote", -1)
+                .build());
+    }
+}
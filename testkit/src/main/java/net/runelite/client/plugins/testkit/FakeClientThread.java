@@ -0,0 +1,52 @@
+package net.runelite.client.plugins.testkit;
+
+import net.runelite.client.callback.ClientThread;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs invocations immediately, the simulation being the client thread, and deferred ones at the
+ * end of the tick they were queued on.
+ */
+public class FakeClientThread extends ClientThread {
+    private final Queue<BooleanSupplier> later = new ArrayDeque<>();
+
+    @Override
+    public void invoke(Runnable runnable) {
+        runnable.run();
+    }
+
+    @Override
+    public void invoke(BooleanSupplier supplier) {
+        if (!supplier.getAsBoolean()) {
+            later.add(supplier);
+        }
+    }
+
+    @Override
+    public void invokeLater(Runnable runnable) {
+        later.add(() -> {
+            runnable.run();
+            return true;
+        });
+    }
+
+    @Override
+    public void invokeLater(BooleanSupplier supplier) {
+        later.add(supplier);
+    }
+
+    /**
+     * Runs what was deferred so far; suppliers returning false are retried next time.
+     */
+    void drain() {
+        for (int n = later.size(); n > 0; n--) {
+            BooleanSupplier supplier = later.poll();
+            if (!supplier.getAsBoolean()) {
+                later.add(supplier);
+            }
+        }
+    }
+}
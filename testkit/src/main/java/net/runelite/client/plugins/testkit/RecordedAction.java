@@ -0,0 +1,13 @@
+package net.runelite.client.plugins.testkit;
+
+import lombok.Value;
+import net.runelite.client.plugins.papayautils.MenuIntent;
+
+/**
+ * A menu action a plugin invoked, and the tick it was invoked on.
+ */
+@Value
+public class RecordedAction {
+    int tick;
+    MenuIntent intent;
+}
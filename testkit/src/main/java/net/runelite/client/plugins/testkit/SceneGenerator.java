@@ -0,0 +1,265 @@
+package net.runelite.client.plugins.testkit;
+
+import net.runelite.api.GameObject;
+import net.runelite.api.InventoryID;
+import net.runelite.api.NPC;
+import net.runelite.api.Point;
+import net.runelite.api.Tile;
+import net.runelite.api.TileItem;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.ItemDespawned;
+import net.runelite.api.events.ItemSpawned;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.eventbus.EventBus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Populates a {@link FakeClient} with a random scene of the given density and announces it
+ * through the same events the client posts while a scene loads.
+ */
+public class SceneGenerator {
+    public static final int BANK_BOOTH = 10583;
+    public static final int ANVIL = 2097;
+    public static final int ALTAR = 409;
+
+    public static final int DRAGON_BONES = 536;
+    public static final int ADAMANTITE_BAR = 2361;
+    public static final int ADAMANT_FULL_HELM = 1161;
+    public static final int PRAYER_POTION = 2434;
+    public static final int COINS = 995;
+
+    public static final int PERK_MASTER = 10000;
+    public static final int WHISPERER = 12204;
+
+    private static final String[] OBJECT_NAMES = {"Tree", "Rocks", "Door", "Fence", "Crate", "Table", "Chair", "Lamp"};
+    private static final String[] NPC_NAMES = {"Man", "Woman", "Guard", "Banker", "Cat"};
+    private static final String[] ITEM_NAMES = {"Lobster", "Rune essence", "Oak logs", "Iron ore", "Feather", "Law rune"};
+
+    private final FakeClient fake;
+    private final EventBus eventBus;
+    private final Random random;
+    private final Map<Tile, List<GameObject>> tileObjects = new IdentityHashMap<>();
+
+    public SceneGenerator(FakeClient fake, EventBus eventBus, long seed) {
+        this.fake = fake;
+        this.eventBus = eventBus;
+        this.random = new Random(seed);
+    }
+
+    public void generate(SceneSpec spec) {
+        registerItemNames();
+
+        // The objects and npcs the plugins look for, then filler
+        spawnObject(BANK_BOOTH, "Bank booth", 50, 54);
+        spawnObject(ANVIL, "Anvil", 56, 50);
+        spawnObject(ALTAR, "Altar", 48, 48);
+        int objects = (int) (spec.getObjectsPerTile() * FakeClient.SCENE_SIZE * FakeClient.SCENE_SIZE);
+        for (int i = 0; i < objects; i++) {
+            spawnObject(1000 + random.nextInt(OBJECT_NAMES.length), OBJECT_NAMES[random.nextInt(OBJECT_NAMES.length)],
+                    random.nextInt(FakeClient.SCENE_SIZE), random.nextInt(FakeClient.SCENE_SIZE));
+        }
+
+        spawnNpc(PERK_MASTER, "Perk Master", 52, 52);
+        for (int i = 0; i < spec.getNpcCount(); i++) {
+            spawnNpc(3000 + random.nextInt(NPC_NAMES.length), NPC_NAMES[random.nextInt(NPC_NAMES.length)],
+                    random.nextInt(FakeClient.SCENE_SIZE), random.nextInt(FakeClient.SCENE_SIZE));
+        }
+
+        for (int i = 0; i < spec.getLootPiles(); i++) {
+            spawnLoot(4000 + random.nextInt(ITEM_NAMES.length), 52 + random.nextInt(9) - 4, 52 + random.nextInt(9) - 4);
+        }
+
+        int[] bank = new int[spec.getBankSize()];
+        for (int i = 0; i < bank.length; i++) {
+            bank[i] = 4000 + random.nextInt(ITEM_NAMES.length);
+        }
+        if (bank.length >= 2) {
+            bank[random.nextInt(bank.length / 2)] = DRAGON_BONES;
+            bank[bank.length / 2 + random.nextInt(bank.length - bank.length / 2)] = ADAMANTITE_BAR;
+        }
+        setBank(bank);
+
+        int[] inventory = new int[28];
+        Arrays.fill(inventory, -1);
+        inventory[0] = COINS;
+        inventory[1] = PRAYER_POTION;
+        setInventory(inventory);
+    }
+
+    /**
+     * Converts scene coordinates on the player's plane to a world point.
+     */
+    public WorldPoint toWorld(int sceneX, int sceneY) {
+        return new WorldPoint(fake.getBaseX() + sceneX, fake.getBaseY() + sceneY, fake.getPlayerLocation().getPlane());
+    }
+
+    public GameObject spawnObject(int id, String name, int sceneX, int sceneY) {
+        WorldPoint location = toWorld(sceneX, sceneY);
+        Point sceneLocation = new Point(sceneX, sceneY);
+        GameObject object = Fake.of(GameObject.class)
+                .answer("getId", id)
+                .answer("getName", name)
+                .answer("getPlane", location.getPlane())
+                .answer("getWorldLocation", location)
+                .answer("getSceneMinLocation", sceneLocation)
+                .build();
+
+        Tile tile = getOrCreateTile(sceneX, sceneY);
+        tileObjects.get(tile).add(object);
+
+        GameObjectSpawned event = new GameObjectSpawned();
+        event.setTile(tile);
+        event.setGameObject(object);
+        eventBus.post(event);
+        return object;
+    }
+
+    public NPC spawnNpc(int id, String name, int sceneX, int sceneY) {
+        WorldPoint location = toWorld(sceneX, sceneY);
+        int index = fake.getNpcs().size();
+        NPC npc = Fake.of(NPC.class)
+                .answer("getId", id)
+                .answer("getIndex", index)
+                .answer("getName", name)
+                .answer("getWorldLocation", location)
+                .answer("getAnimation", -1)
+                .build();
+
+        fake.getNpcs().add(npc);
+        eventBus.post(new NpcSpawned(npc));
+        return npc;
+    }
+
+    public void despawnNpc(NPC npc) {
+        fake.getNpcs().remove(npc);
+        eventBus.post(new NpcDespawned(npc));
+    }
+
+    public TileItem spawnLoot(int itemId, int sceneX, int sceneY) {
+        TileItem item = Fake.of(TileItem.class)
+                .answer("getId", itemId)
+                .answer("getQuantity", 1)
+                .build();
+        eventBus.post(new ItemSpawned(getOrCreateTile(sceneX, sceneY), item));
+        return item;
+    }
+
+    public void despawnLoot(TileItem item, int sceneX, int sceneY) {
+        eventBus.post(new ItemDespawned(getOrCreateTile(sceneX, sceneY), item));
+    }
+
+    /**
+     * Replaces the bank contents and (re)builds the bank item widgets. Ids of -1 are empty slots.
+     */
+    public void setBank(int[] itemIds) {
+        int[] quantities = new int[itemIds.length];
+        Arrays.fill(quantities, 100);
+        eventBus.post(new ItemContainerChanged(InventoryID.BANK.getId(),
+                fake.setContainer(InventoryID.BANK, itemIds, quantities)));
+        fake.setWidget(WidgetInfo.BANK_ITEM_CONTAINER, itemContainerWidget(WidgetInfo.BANK_ITEM_CONTAINER, itemIds));
+    }
+
+    /**
+     * Replaces the inventory, and the bank's inventory widgets along with it. Ids of -1 are empty slots.
+     */
+    public void setInventory(int[] itemIds) {
+        int[] quantities = new int[itemIds.length];
+        Arrays.fill(quantities, 1);
+        eventBus.post(new ItemContainerChanged(InventoryID.INVENTORY.getId(),
+                fake.setContainer(InventoryID.INVENTORY, itemIds, quantities)));
+        fake.setWidget(WidgetInfo.BANK_INVENTORY_ITEMS_CONTAINER,
+                itemContainerWidget(WidgetInfo.BANK_INVENTORY_ITEMS_CONTAINER, itemIds));
+    }
+
+    /**
+     * Opens an interface, or closes it when the widget is null.
+     */
+    public void showWidget(WidgetInfo info, Widget widget) {
+        fake.setWidget(info, widget);
+        if (widget != null) {
+            WidgetLoaded event = new WidgetLoaded();
+            event.setGroupId(info.getGroupId());
+            eventBus.post(event);
+        }
+    }
+
+    public Widget itemContainerWidget(WidgetInfo info, int[] itemIds) {
+        Widget[] children = new Widget[itemIds.length];
+        for (int i = 0; i < children.length; i++) {
+            String name = itemIds[i] == -1 ? "" : "<col=ff9040>" + fake.getClient().getItemDefinition(itemIds[i]).getName() + "</col>";
+            children[i] = widget(info.getId(), i, name, "", itemIds[i]);
+        }
+        return Fake.of(Widget.class)
+                .answer("getId", info.getId())
+                .answer("getIndex", -1)
+                .answer("getItemId", -1)
+                .answer("getDynamicChildren", children)
+                .build();
+    }
+
+    public static Widget widget(int id, int index, String name, String text, int itemId) {
+        return Fake.of(Widget.class)
+                .answer("getId", id)
+                .answer("getIndex", index)
+                .answer("getName", name)
+                .answer("getText", text)
+                .answer("getItemId", itemId)
+                .build();
+    }
+
+    /**
+     * Returns a dialog offering the options, the first text being the dialog's title.
+     */
+    public static Widget dialogOptions(String... texts) {
+        Widget[] children = new Widget[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            children[i] = widget(WidgetInfo.DIALOG_OPTION_OPTIONS.getId(), i, "", texts[i], -1);
+        }
+        return Fake.of(Widget.class)
+                .answer("getId", WidgetInfo.DIALOG_OPTION_OPTIONS.getId())
+                .answer("getDynamicChildren", children)
+                .build();
+    }
+
+    private void registerItemNames() {
+        fake.setItemName(DRAGON_BONES, "Dragon bones");
+        fake.setItemName(ADAMANTITE_BAR, "Adamantite bar");
+        fake.setItemName(ADAMANT_FULL_HELM, "Adamant full helm");
+        fake.setItemName(PRAYER_POTION, "Prayer potion(4)");
+        fake.setItemName(COINS, "Coins");
+        for (int i = 0; i < ITEM_NAMES.length; i++) {
+            fake.setItemName(4000 + i, ITEM_NAMES[i]);
+        }
+    }
+
+    private Tile getOrCreateTile(int sceneX, int sceneY) {
+        int plane = fake.getPlayerLocation().getPlane();
+        Tile tile = fake.getTile(plane, sceneX, sceneY);
+        if (tile == null) {
+            WorldPoint location = toWorld(sceneX, sceneY);
+            Point sceneLocation = new Point(sceneX, sceneY);
+            List<GameObject> objects = new ArrayList<>();
+            tile = Fake.of(Tile.class)
+                    .answer("getPlane", plane)
+                    .answer("getWorldLocation", location)
+                    .answer("getSceneLocation", sceneLocation)
+                    .answer("getGameObjects", args -> objects.toArray(new GameObject[0]))
+                    .build();
+            fake.setTile(plane, sceneX, sceneY, tile);
+            tileObjects.put(tile, objects);
+        }
+        return tile;
+    }
+}
@@ -0,0 +1,29 @@
+package net.runelite.client.plugins.testkit;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * How dense a generated scene is. The defaults roughly match a busy bank area.
+ */
+@Value
+@Builder
+public class SceneSpec {
+    @Builder.Default
+    long seed = 1;
+
+    /**
+     * Average number of game objects per tile of the 104x104 scene.
+     */
+    @Builder.Default
+    double objectsPerTile = 0.5;
+
+    @Builder.Default
+    int npcCount = 50;
+
+    @Builder.Default
+    int bankSize = 400;
+
+    @Builder.Default
+    int lootPiles = 0;
+}
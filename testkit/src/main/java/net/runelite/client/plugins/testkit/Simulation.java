@@ -0,0 +1,163 @@
+package net.runelite.client.plugins.testkit;
+
+import com.google.inject.Binder;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.name.Names;
+import lombok.Getter;
+import net.runelite.api.Client;
+import net.runelite.api.Skill;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.StatChanged;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.chat.ChatMessageManager;
+import net.runelite.client.config.Config;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.eventbus.EventBus;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.plugins.Plugin;
+import net.runelite.client.plugins.papayautils.ActionPlanner;
+import net.runelite.client.plugins.papayautils.CheckpointStore;
+import net.runelite.client.plugins.papayautils.PapayaUtilsPlugin;
+import net.runelite.client.ui.overlay.OverlayManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs plugins headless against a {@link FakeClient}. Plugins are injected the way the client
+ * injects them, with papaya utils started first, and are then driven tick by tick as fast as they
+ * can process the ticks.
+ */
+public class Simulation {
+    @Getter
+    private final FakeClient fake = new FakeClient();
+
+    @Getter
+    private final EventBus eventBus = new EventBus();
+
+    @Getter
+    private final SceneGenerator scene;
+
+    private final FakeClientThread clientThread = new FakeClientThread();
+    private final Injector injector;
+    private final List<Plugin> plugins = new ArrayList<>();
+
+    public Simulation(SceneSpec spec) {
+        // Checkpoints of real sessions must neither leak into a run nor be overwritten by it
+        File checkpoints = createTempDirectory("papaya-checkpoints");
+        injector = Guice.createInjector(binder -> {
+            binder.bind(Client.class).toInstance(fake.getClient());
+            binder.bind(EventBus.class).toInstance(eventBus);
+            binder.bind(ClientThread.class).toInstance(clientThread);
+            binder.bind(ConfigManager.class).toInstance(Fake.uninitialized(ConfigManager.class));
+            binder.bind(OverlayManager.class).toInstance(Fake.uninitialized(OverlayManager.class));
+            binder.bind(ChatMessageManager.class).toInstance(Fake.uninitialized(ChatMessageManager.class));
+            binder.bind(ItemManager.class).toInstance(Fake.uninitialized(ItemManager.class));
+            binder.bind(File.class).annotatedWith(Names.named(CheckpointStore.DIRECTORY)).toInstance(checkpoints);
+        });
+
+        start(PapayaUtilsPlugin.class);
+        // Plans complete within the tick they were made in, so runs stay deterministic
+        injector.getInstance(ActionPlanner.class).setExecutor(Runnable::run);
+        scene = new SceneGenerator(fake, eventBus, spec.getSeed());
+        scene.generate(spec);
+    }
+
+    /**
+     * Creates, injects, starts and registers a plugin. Its configs return their defaults.
+     */
+    public <P extends Plugin> P start(Class<P> type) {
+        P plugin;
+        try {
+            plugin = type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unable to create " + type.getName(), e);
+        }
+
+        injector.createChildInjector(binder -> {
+            bind(binder, type, plugin);
+            for (Field field : type.getDeclaredFields()) {
+                if (Config.class.isAssignableFrom(field.getType()) && field.getType().isInterface()) {
+                    bind(binder, field.getType(), Fake.config(field.getType()));
+                }
+            }
+        });
+
+        try {
+            Method startUp = Plugin.class.getDeclaredMethod("startUp");
+            startUp.setAccessible(true);
+            startUp.invoke(plugin);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to start " + type.getName(), e);
+        }
+
+        eventBus.register(plugin);
+        plugins.add(plugin);
+        return plugin;
+    }
+
+    /**
+     * Returns the instance the plugins are injected with, e.g. one of the papaya utils services.
+     */
+    public <T> T getInstance(Class<T> type) {
+        return injector.getInstance(type);
+    }
+
+    /**
+     * Changes a skill's levels and posts the StatChanged event the client would post.
+     */
+    public void setSkill(Skill skill, int boosted, int real) {
+        fake.setSkill(skill, boosted, real);
+        eventBus.post(new StatChanged(skill, 0, real, boosted));
+    }
+
+    /**
+     * Runs the given number of ticks. The hook is called before each tick is posted so it can
+     * change the world, and only the time the plugins spend handling the tick is measured.
+     */
+    public SimulationResult run(int ticks, Consumer<Simulation> beforeTick) {
+        long[] tickNanos = new long[ticks];
+        int firstAction = fake.getActions().size();
+        GameTick gameTick = new GameTick();
+        ClientTick clientTick = new ClientTick();
+
+        for (int i = 0; i < ticks; i++) {
+            fake.setTickCount(fake.getTickCount() + 1);
+            fake.setGameCycle(fake.getGameCycle() + 30);
+            beforeTick.accept(this);
+
+            long start = System.nanoTime();
+            eventBus.post(gameTick);
+            clientThread.drain();
+            eventBus.post(clientTick);
+            tickNanos[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(tickNanos);
+        List<RecordedAction> actions = new ArrayList<>(fake.getActions().subList(firstAction, fake.getActions().size()));
+        return new SimulationResult(tickNanos, actions);
+    }
+
+    private static File createTempDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix).toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void bind(Binder binder, Class<T> type, Object instance) {
+        binder.bind(type).toInstance((T) instance);
+    }
+}
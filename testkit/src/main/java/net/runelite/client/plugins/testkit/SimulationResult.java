@@ -0,0 +1,71 @@
+package net.runelite.client.plugins.testkit;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-tick cost and recorded menu actions of a simulation run.
+ */
+public class SimulationResult {
+    // Sorted ascending
+    private final long[] tickNanos;
+
+    @Getter
+    private final List<RecordedAction> actions;
+
+    SimulationResult(long[] tickNanos, List<RecordedAction> actions) {
+        this.tickNanos = tickNanos;
+        this.actions = actions;
+    }
+
+    public int getTicks() {
+        return tickNanos.length;
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : tickNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the tick cost at the given percentile, 0 to 100.
+     */
+    public long getPercentileNanos(double percentile) {
+        if (tickNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * tickNanos.length) - 1;
+        return tickNanos[Math.max(0, Math.min(index, tickNanos.length - 1))];
+    }
+
+    /**
+     * Number of recorded actions per menu option.
+     */
+    public Map<String, Integer> getActionCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (RecordedAction action : actions) {
+            counts.merge(action.getIntent().getOption(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        long total = getTotalNanos();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d ticks in %.1f ms, %.0f ticks/s%n", tickNanos.length, total / 1e6,
+                total == 0 ? 0 : tickNanos.length * 1e9 / total));
+        sb.append(String.format("per tick: mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                tickNanos.length == 0 ? 0 : total / 1e3 / tickNanos.length, getPercentileNanos(50) / 1e3,
+                getPercentileNanos(99) / 1e3, getPercentileNanos(100) / 1e3));
+        sb.append(String.format("%d menu actions%n", actions.size()));
+        getActionCounts().forEach((option, count) -> sb.append(String.format("%8d %s%n", count, option)));
+        return sb.toString();
+    }
+}
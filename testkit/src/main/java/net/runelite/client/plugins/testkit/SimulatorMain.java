@@ -0,0 +1,319 @@
+package net.runelite.client.plugins.testkit;
+
+import net.runelite.api.InventoryID;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.MenuAction;
+import net.runelite.api.NPC;
+import net.runelite.api.Prayer;
+import net.runelite.api.Projectile;
+import net.runelite.api.Skill;
+import net.runelite.api.TileItem;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.ProjectileSpawned;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.plugins.autoprayer.AutoPrayerPlugin;
+import net.runelite.client.plugins.autoprayerpot.AutoPrayerPotPlugin;
+import net.runelite.client.plugins.autowhisperer.AutoWhispererPlugin;
+import net.runelite.client.plugins.papayautils.MenuIntent;
+import net.runelite.client.plugins.papayautils.PrayerDrain;
+import net.runelite.client.plugins.perkpoints.PerkPointsPlugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Drives one plugin through a simulated session and prints its per-tick cost and the menu
+ * actions it invoked:
+ *
+ * <pre>
+ * gradlew :testkit:simulate --args="autowhisperer --ticks=100000 --objects=2 --npcs=200 --bank=800 --loot=20"
+ * </pre>
+ *
+ * Each scenario reacts to the plugin's actions just enough to keep it cycling through its states.
+ * Add --actions to print every recorded action.
+ */
+public final class SimulatorMain {
+    private SimulatorMain() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: SimulatorMain <autoprayer|autoprayerpot|autowhisperer|perkpoints> [--ticks=N] "
+                    + "[--objects=PER_TILE] [--npcs=N] [--bank=N] [--loot=N] [--seed=N] [--actions]");
+            System.exit(1);
+            return;
+        }
+
+        int ticks = 10_000;
+        boolean printActions = false;
+        SceneSpec.SceneSpecBuilder spec = SceneSpec.builder();
+        for (String arg : Arrays.asList(args).subList(1, args.length)) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--ticks=")) {
+                ticks = Integer.parseInt(value);
+            } else if (arg.startsWith("--objects=")) {
+                spec.objectsPerTile(Double.parseDouble(value));
+            } else if (arg.startsWith("--npcs=")) {
+                spec.npcCount(Integer.parseInt(value));
+            } else if (arg.startsWith("--bank=")) {
+                spec.bankSize(Integer.parseInt(value));
+            } else if (arg.startsWith("--loot=")) {
+                spec.lootPiles(Integer.parseInt(value));
+            } else if (arg.startsWith("--seed=")) {
+                spec.seed(Long.parseLong(value));
+            } else if (arg.equals("--actions")) {
+                printActions = true;
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+        }
+
+        SceneSpec sceneSpec = spec.build();
+        Simulation simulation = new Simulation(sceneSpec);
+        Consumer<Simulation> scenario;
+        switch (args[0]) {
+            case "autoprayer":
+                simulation.start(AutoPrayerPlugin.class);
+                scenario = new Reactions(simulation)::autoPrayer;
+                break;
+            case "autoprayerpot":
+                simulation.start(AutoPrayerPotPlugin.class);
+                scenario = new Reactions(simulation)::autoPrayerPot;
+                break;
+            case "autowhisperer":
+                simulation.start(AutoWhispererPlugin.class);
+                scenario = new Reactions(simulation).whisperer(sceneSpec.getLootPiles());
+                break;
+            case "perkpoints":
+                simulation.start(PerkPointsPlugin.class).start();
+                scenario = new Reactions(simulation)::perkPoints;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown plugin " + args[0]);
+        }
+
+        // Let the JIT settle before measuring
+        simulation.run(Math.min(ticks, 5_000), scenario);
+        SimulationResult result = simulation.run(ticks, scenario);
+
+        if (printActions) {
+            for (RecordedAction action : result.getActions()) {
+                MenuIntent intent = action.getIntent();
+                System.out.printf("%d %s %s id=%d opcode=%d p0=%d p1=%d%n", action.getTick(), intent.getOption(),
+                        intent.getTarget(), intent.getIdentifier(), intent.getOpcode(), intent.getParam0(),
+                        intent.getParam1());
+            }
+        }
+        System.out.print(result);
+    }
+
+    /**
+     * The world's answer to the actions of each plugin.
+     */
+    private static final class Reactions {
+        private final FakeClient fake;
+        private final SceneGenerator scene;
+        private int seen;
+        private int drainCounter;
+
+        private Reactions(Simulation simulation) {
+            this.fake = simulation.getFake();
+            this.scene = simulation.getScene();
+        }
+
+        private List<MenuIntent> newActions() {
+            List<RecordedAction> actions = fake.getActions();
+            List<MenuIntent> intents = new ArrayList<>(actions.size() - seen);
+            for (; seen < actions.size(); seen++) {
+                intents.add(actions.get(seen).getIntent());
+            }
+            return intents;
+        }
+
+        void autoPrayer(Simulation simulation) {
+            for (MenuIntent intent : newActions()) {
+                if (intent.getOption().equals("Withdraw-All")) {
+                    scene.setInventory(filled(SceneGenerator.DRAGON_BONES, 28));
+                } else if (intent.getOpcode() == MenuAction.WIDGET_TARGET_ON_GAME_OBJECT.getId()) {
+                    int[] inventory = itemIds();
+                    int slot = indexOf(inventory, SceneGenerator.DRAGON_BONES);
+                    if (slot != -1) {
+                        inventory[slot] = -1;
+                        scene.setInventory(inventory);
+                    }
+                }
+            }
+        }
+
+        void autoPrayerPot(Simulation simulation) {
+            // Piety and Protect from Melee without prayer bonus, drained the way the game drains them
+            if (fake.getActivePrayers().isEmpty()) {
+                fake.getActivePrayers().add(Prayer.PIETY);
+                fake.getActivePrayers().add(Prayer.PROTECT_FROM_MELEE);
+            }
+
+            int current = fake.getClient().getBoostedSkillLevel(Skill.PRAYER);
+            int prayer = current;
+            for (MenuIntent intent : newActions()) {
+                if (intent.getOption().equals("Drink")) {
+                    prayer = Math.min(99, prayer + 7 + 99 / 4);
+                }
+            }
+
+            drainCounter += PrayerDrain.getDrainEffect(fake.getClient());
+            while (drainCounter > PrayerDrain.getResistance(0) && prayer > 0) {
+                drainCounter -= PrayerDrain.getResistance(0);
+                prayer--;
+            }
+            if (prayer != current) {
+                simulation.setSkill(Skill.PRAYER, prayer, 99);
+            }
+        }
+
+        Consumer<Simulation> whisperer(int lootPiles) {
+            fake.setPlayerLocation(new WorldPoint(2656, 6368, 0));
+            NPC[] whisperer = {scene.spawnNpc(SceneGenerator.WHISPERER, "The Whisperer", 56, 56)};
+            List<Object[]> loot = new ArrayList<>();
+            int[] hp = {60};
+
+            return simulation -> {
+                for (MenuIntent intent : newActions()) {
+                    switch (intent.getOption()) {
+                        case "Attack":
+                            fake.setPlayerInteracting(whisperer[0]);
+                            break;
+                        case "Take":
+                            for (int i = 0; i < loot.size(); i++) {
+                                Object[] pile = loot.get(i);
+                                if (((TileItem) pile[0]).getId() == intent.getIdentifier()) {
+                                    scene.despawnLoot((TileItem) pile[0], (Integer) pile[1], (Integer) pile[2]);
+                                    loot.remove(i);
+                                    break;
+                                }
+                            }
+                            break;
+                        case "Previous-teleport":
+                            if (whisperer[0] == null) {
+                                whisperer[0] = scene.spawnNpc(SceneGenerator.WHISPERER, "The Whisperer", 56, 56);
+                                hp[0] = 60;
+                            }
+                            break;
+                    }
+                }
+
+                if (whisperer[0] == null) {
+                    return;
+                }
+
+                if (fake.getTickCount() % 3 == 0) {
+                    int id = fake.getTickCount() % 2 == 0 ? 2444 : 2445;
+                    Projectile projectile = Fake.of(Projectile.class)
+                            .answer("getId", id)
+                            .answer("getInteracting", fake.getLocalPlayer())
+                            .answer("getEndCycle", fake.getGameCycle() + 90)
+                            .build();
+                    ProjectileSpawned event = new ProjectileSpawned();
+                    event.setProjectile(projectile);
+                    simulation.getEventBus().post(event);
+                }
+
+                if (fake.getPlayerInteracting() == whisperer[0] && --hp[0] <= 0) {
+                    scene.despawnNpc(whisperer[0]);
+                    fake.setPlayerInteracting(null);
+                    whisperer[0] = null;
+                    for (int i = 0; i < lootPiles; i++) {
+                        int x = 54 + i % 5;
+                        int y = 54 + i / 5 % 5;
+                        loot.add(new Object[]{scene.spawnLoot(SceneGenerator.COINS, x, y), x, y});
+                    }
+                }
+            };
+        }
+
+        void perkPoints(Simulation simulation) {
+            for (MenuIntent intent : newActions()) {
+                switch (intent.getOption()) {
+                    case "Get-task":
+                        scene.showWidget(WidgetInfo.DIALOG_OPTION_OPTIONS, SceneGenerator.dialogOptions(
+                                "Select an option", "Skilling", "Combat", "Elite", "Adamant full helm"));
+                        break;
+                    case "Continue":
+                        if (intent.getParam0() == 4) {
+                            scene.showWidget(WidgetInfo.DIALOG_OPTION_OPTIONS, null);
+                        }
+                        break;
+                    case "Smith":
+                        if (intent.getOpcode() != MenuAction.CC_OP.getId()) {
+                            scene.showWidget(WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER, smithing());
+                        } else {
+                            int[] inventory = itemIds();
+                            for (int i = 0; i < inventory.length; i++) {
+                                if (inventory[i] == SceneGenerator.ADAMANTITE_BAR) {
+                                    inventory[i] = SceneGenerator.ADAMANT_FULL_HELM;
+                                }
+                            }
+                            scene.showWidget(WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER, null);
+                            scene.setInventory(inventory);
+                        }
+                        break;
+                    case "Deposit-All":
+                        int[] inventory = itemIds();
+                        for (int i = 0; i < inventory.length; i++) {
+                            if (inventory[i] == SceneGenerator.ADAMANT_FULL_HELM) {
+                                inventory[i] = -1;
+                            }
+                        }
+                        scene.setInventory(inventory);
+                        break;
+                    case "Withdraw-All":
+                        scene.setInventory(filled(SceneGenerator.ADAMANTITE_BAR, 26));
+                        break;
+                }
+            }
+        }
+
+        private int[] itemIds() {
+            int[] ids = new int[28];
+            Arrays.fill(ids, -1);
+            ItemContainer inventory = fake.getClient().getItemContainer(InventoryID.INVENTORY);
+            for (int slot = 0; slot < ids.length; slot++) {
+                if (inventory.getItem(slot) != null) {
+                    ids[slot] = inventory.getItem(slot).getId();
+                }
+            }
+            return ids;
+        }
+
+        private static int[] filled(int itemId, int count) {
+            int[] ids = new int[28];
+            Arrays.fill(ids, -1);
+            Arrays.fill(ids, 0, count, itemId);
+            return ids;
+        }
+
+        private static int indexOf(int[] ids, int itemId) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == itemId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static Widget smithing() {
+            String[] names = {"Adamant dagger", "Adamant sword", "Adamant med helm", "Adamant full helm", "Adamant platebody"};
+            Widget[] children = new Widget[names.length];
+            for (int i = 0; i < names.length; i++) {
+                children[i] = SceneGenerator.widget(WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER.getId() + i + 1, -1,
+                        "<col=ff9040>" + names[i] + "</col>", "", -1);
+            }
+            return Fake.of(Widget.class)
+                    .answer("getId", WidgetInfo.SMITHING_INVENTORY_ITEMS_CONTAINER.getId())
+                    .answer("getStaticChildren", children)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package net.runelite.client.plugins.autoprayer;
+
+import net.runelite.api.MenuAction;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.plugins.papayautils.MenuIntent;
+import net.runelite.client.plugins.testkit.RecordedAction;
+import net.runelite.client.plugins.testkit.SceneGenerator;
+import net.runelite.client.plugins.testkit.SceneSpec;
+import net.runelite.client.plugins.testkit.Simulation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AutoPrayerPluginTest {
+    private static final int BONES = SceneGenerator.DRAGON_BONES;
+
+    private Simulation simulation;
+
+    @Before
+    public void setUp() {
+        simulation = new Simulation(SceneSpec.builder().objectsPerTile(0).npcCount(0).bankSize(0).build());
+    }
+
+    @Test
+    public void withdrawsAllBonesFromTheirBankSlot() {
+        // The generated bank interface is open
+        simulation.getScene().setBank(new int[]{4000, 4001, 4002, BONES, 4003});
+        simulation.start(AutoPrayerPlugin.class);
+
+        List<RecordedAction> actions = simulation.run(2, s -> {
+        }).getActions();
+
+        assertEquals(1, actions.size());
+        assertEquals(MenuIntent.of("Withdraw-All", "<col=ff9040>Dragon bones</col>", 1, MenuAction.CC_OP.getId(), 3,
+                WidgetInfo.BANK_ITEM_CONTAINER.getId()), actions.get(0).getIntent());
+    }
+
+    @Test
+    public void usesBonesOnTheAltar() {
+        int[] inventory = new int[28];
+        Arrays.fill(inventory, -1);
+        inventory[5] = BONES;
+        inventory[6] = BONES;
+        simulation.getScene().setInventory(inventory);
+        simulation.start(AutoPrayerPlugin.class);
+
+        List<RecordedAction> actions = simulation.run(2, s -> {
+        }).getActions();
+
+        // The first bone is used on the altar the scene generator placed at 48, 48
+        assertEquals(2, actions.size());
+        assertEquals(MenuIntent.of("Use", "Dragon bones", 0, MenuAction.WIDGET_TARGET.getId(), 5,
+                WidgetInfo.INVENTORY.getId()), actions.get(0).getIntent());
+        assertEquals(MenuIntent.of("Use", "Dragon bones", 411, MenuAction.WIDGET_TARGET_ON_GAME_OBJECT.getId(), 48, 48),
+                actions.get(1).getIntent());
+        assertEquals(actions.get(0).getTick(), actions.get(1).getTick());
+    }
+}
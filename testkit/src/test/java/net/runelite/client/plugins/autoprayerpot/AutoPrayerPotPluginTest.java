@@ -0,0 +1,51 @@
+package net.runelite.client.plugins.autoprayerpot;
+
+import net.runelite.api.MenuAction;
+import net.runelite.api.Skill;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.plugins.papayautils.MenuIntent;
+import net.runelite.client.plugins.testkit.RecordedAction;
+import net.runelite.client.plugins.testkit.SceneSpec;
+import net.runelite.client.plugins.testkit.Simulation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AutoPrayerPotPluginTest {
+    // The generated inventory holds coins in slot 0 and a prayer potion in slot 1
+    private static final int POTION_SLOT = 1;
+
+    private Simulation simulation;
+
+    @Before
+    public void setUp() {
+        simulation = new Simulation(SceneSpec.builder().objectsPerTile(0).npcCount(0).bankSize(0).build());
+        simulation.start(AutoPrayerPotPlugin.class);
+    }
+
+    @Test
+    public void sipsBelowThreshold() {
+        assertTrue(simulation.run(2, s -> {
+        }).getActions().isEmpty());
+
+        // The default threshold is 20% of the maximum
+        simulation.setSkill(Skill.PRAYER, 10, 99);
+        List<RecordedAction> actions = simulation.run(1, s -> {
+        }).getActions();
+
+        assertEquals(1, actions.size());
+        assertEquals(MenuIntent.of("Drink", "prayer potion(4)", 2, MenuAction.CC_OP.getId(), POTION_SLOT,
+                WidgetInfo.INVENTORY.getId()), actions.get(0).getIntent());
+    }
+
+    @Test
+    public void noSipAboveThreshold() {
+        simulation.setSkill(Skill.PRAYER, 30, 99);
+        assertTrue(simulation.run(5, s -> {
+        }).getActions().isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package net.runelite.client.plugins.autowhisperer;
+
+import net.runelite.api.GameState;
+import net.runelite.api.MenuAction;
+import net.runelite.api.NPC;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.client.plugins.papayautils.MenuIntent;
+import net.runelite.client.plugins.testkit.RecordedAction;
+import net.runelite.client.plugins.testkit.SceneGenerator;
+import net.runelite.client.plugins.testkit.SceneSpec;
+import net.runelite.client.plugins.testkit.Simulation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AutoWhispererPluginTest {
+    private Simulation simulation;
+
+    @Before
+    public void setUp() {
+        simulation = new Simulation(SceneSpec.builder().objectsPerTile(0).npcCount(0).bankSize(0).build());
+    }
+
+    @Test
+    public void attacksTheWhisperer() {
+        NPC whisperer = simulation.getScene().spawnNpc(SceneGenerator.WHISPERER, "The Whisperer", 56, 56);
+        simulation.start(AutoWhispererPlugin.class);
+
+        List<RecordedAction> actions = simulation.run(2, s -> {
+        }).getActions();
+
+        assertEquals(1, actions.size());
+        assertEquals(MenuIntent.of("Attack", "The Whisperer", whisperer.getIndex(), MenuAction.NPC_SECOND_OPTION.getId(), 0, 0),
+                actions.get(0).getIntent());
+    }
+
+    @Test
+    public void takesTheLoot() {
+        simulation.start(AutoWhispererPlugin.class);
+        simulation.getScene().spawnLoot(SceneGenerator.COINS, 54, 57);
+
+        List<RecordedAction> actions = simulation.run(2, s -> {
+        }).getActions();
+
+        assertEquals(1, actions.size());
+        assertEquals(MenuIntent.of("Take", "Coins", SceneGenerator.COINS, MenuAction.GROUND_ITEM_THIRD_OPTION.getId(), 54, 57),
+                actions.get(0).getIntent());
+    }
+
+    @Test
+    public void forgetsTheLootOfAnUnloadedScene() {
+        simulation.start(AutoWhispererPlugin.class);
+        simulation.getScene().spawnLoot(SceneGenerator.COINS, 54, 57);
+        GameStateChanged loading = new GameStateChanged();
+        loading.setGameState(GameState.LOADING);
+        simulation.getEventBus().post(loading);
+
+        // With nothing to take the plugin waits for loot to land, then starts a new instance
+        List<RecordedAction> actions = simulation.run(8, s -> {
+        }).getActions();
+
+        assertFalse(actions.isEmpty());
+        for (RecordedAction action : actions) {
+            assertTrue(action.getIntent().toString(), action.getIntent().getOption().equals("Previous-teleport")
+                    || action.getIntent().getOption().equals("Continue"));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package net.runelite.client.plugins.papayautils;
+
+import net.runelite.api.InventoryID;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.client.plugins.testkit.SceneGenerator;
+import net.runelite.client.plugins.testkit.SceneSpec;
+import net.runelite.client.plugins.testkit.Simulation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class InventoryModelTest {
+    private static final int COINS = SceneGenerator.COINS;
+    private static final int POTION = SceneGenerator.PRAYER_POTION;
+    private static final int BONES = SceneGenerator.DRAGON_BONES;
+
+    private Simulation simulation;
+    private InventoryModel inventory;
+
+    @Before
+    public void setUp() {
+        simulation = new Simulation(SceneSpec.builder().objectsPerTile(0).npcCount(0).bankSize(0).build());
+        inventory = simulation.getInstance(InventoryModel.class);
+        setInventory(new int[]{COINS, POTION}, new int[]{1, 1});
+    }
+
+    @Test
+    public void consecutiveUpdates() {
+        int version = inventory.getVersion();
+
+        // Coins gain quantity and bones land in a free slot
+        setInventory(new int[]{COINS, POTION, BONES}, new int[]{100, 1, 1});
+        assertEquals(version + 1, inventory.getVersion());
+        assertEquals(0b101, inventory.getChangedSlots());
+        assertEquals(100, inventory.getCount(COINS));
+        assertEquals(1, inventory.getCount(BONES));
+        assertEquals(0b100, inventory.getSlots(BONES));
+        assertEquals(25, inventory.getFreeSlots());
+
+        // The potion is drunk empty
+        setInventory(new int[]{COINS, -1, BONES}, new int[]{100, 0, 1});
+        assertEquals(version + 2, inventory.getVersion());
+        assertEquals(0b010, inventory.getChangedSlots());
+        assertEquals(0, inventory.getCount(POTION));
+        assertEquals(0, inventory.getSlots(POTION));
+        assertEquals(100, inventory.getCount(COINS));
+    }
+
+    @Test
+    public void unchangedUpdateKeepsVersion() {
+        int version = inventory.getVersion();
+
+        setInventory(new int[]{COINS, POTION}, new int[]{1, 1});
+        assertEquals(version, inventory.getVersion());
+        assertEquals(0, inventory.getChangedSlots());
+        assertEquals(0b10, inventory.getSlots(POTION));
+    }
+
+    private void setInventory(int[] itemIds, int[] quantities) {
+        int[] ids = Arrays.copyOf(itemIds, InventoryModel.SIZE);
+        Arrays.fill(ids, itemIds.length, ids.length, -1);
+        int[] counts = Arrays.copyOf(quantities, InventoryModel.SIZE);
+        simulation.getEventBus().post(new ItemContainerChanged(InventoryID.INVENTORY.getId(),
+                simulation.getFake().setContainer(InventoryID.INVENTORY, ids, counts)));
+    }
+}
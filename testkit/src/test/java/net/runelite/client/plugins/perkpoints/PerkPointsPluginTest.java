@@ -0,0 +1,74 @@
+package net.runelite.client.plugins.perkpoints;
+
+import net.runelite.api.MenuAction;
+import net.runelite.api.NPC;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.plugins.papayautils.MenuIntent;
+import net.runelite.client.plugins.testkit.RecordedAction;
+import net.runelite.client.plugins.testkit.SceneGenerator;
+import net.runelite.client.plugins.testkit.SceneSpec;
+import net.runelite.client.plugins.testkit.Simulation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PerkPointsPluginTest {
+    // The dialog's choices are sent to this widget, whatever the option
+    private static final int DIALOG_OPTIONS = 14352385;
+
+    private Simulation simulation;
+
+    @Before
+    public void setUp() {
+        simulation = new Simulation(SceneSpec.builder().objectsPerTile(0).npcCount(0).bankSize(0).build());
+    }
+
+    @Test
+    public void fetchesAnAdamantHelmTask() {
+        simulation.start(PerkPointsPlugin.class).start();
+
+        List<RecordedAction> actions = simulation.run(2, s -> {
+        }).getActions();
+
+        NPC perkMaster = simulation.getFake().getNpcs().get(0);
+        assertEquals(1, actions.size());
+        assertEquals(MenuIntent.of("Get-task", "Perk Master", perkMaster.getIndex(), MenuAction.NPC_THIRD_OPTION.getId(), 0, 0),
+                actions.get(0).getIntent());
+
+        // A dialog already showing the last choice is continued there
+        simulation.getScene().showWidget(WidgetInfo.DIALOG_OPTION_OPTIONS, SceneGenerator.dialogOptions(
+                "Select an option", "Skilling", "Combat", "Elite", "Adamant full helm"));
+        actions = simulation.run(1, s -> {
+        }).getActions();
+
+        assertEquals(1, actions.size());
+        assertEquals(MenuIntent.of("Continue", "", -1, MenuAction.WIDGET_CONTINUE.getId(), 4, DIALOG_OPTIONS),
+                actions.get(0).getIntent());
+    }
+
+    @Test
+    public void depositsHelmsAndWithdrawsBarsInOneTick() {
+        // Smithed helms in the inventory show a task is in progress; the generated bank interface is open
+        int[] inventory = new int[28];
+        Arrays.fill(inventory, -1);
+        inventory[2] = SceneGenerator.ADAMANT_FULL_HELM;
+        inventory[3] = SceneGenerator.ADAMANT_FULL_HELM;
+        simulation.getScene().setInventory(inventory);
+        simulation.getScene().setBank(new int[]{4000, 4001, SceneGenerator.ADAMANTITE_BAR});
+        simulation.start(PerkPointsPlugin.class).start();
+
+        List<RecordedAction> actions = simulation.run(2, s -> {
+        }).getActions();
+
+        assertEquals(2, actions.size());
+        assertEquals(MenuIntent.of("Deposit-All", "<col=ff9040>Adamant full helm</col>", 2, MenuAction.CC_OP.getId(), 2,
+                WidgetInfo.BANK_INVENTORY_ITEMS_CONTAINER.getId()), actions.get(0).getIntent());
+        assertEquals(MenuIntent.of("Withdraw-All", "<col=ff9040>Adamantite bar</col>", 1, MenuAction.CC_OP.getId(), 2,
+                WidgetInfo.BANK_ITEM_CONTAINER.getId()), actions.get(1).getIntent());
+        assertEquals(actions.get(0).getTick(), actions.get(1).getTick());
+    }
+}
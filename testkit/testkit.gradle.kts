@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019 Owain van Brakel <https://github.com/Owain94>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+version = "1.0.0"
+
+// Headless simulation of the plugins against a fake client, not a plugin itself
+
+dependencies {
+    implementation(project(":papayautils"))
+    implementation(project(":autoprayer"))
+    implementation(project(":autoprayerpot"))
+    implementation(project(":autowhisperer"))
+    implementation(project(":perkpoints"))
+
+    runtimeOnly(rootProject.fileTree("libs") {
+        include("client.jar")
+    })
+    runtimeOnly(Libraries.apacheCommonsText)
+    runtimeOnly(Libraries.gson)
+    runtimeOnly(Libraries.guice)
+    runtimeOnly(Libraries.okhttp3)
+    runtimeOnly(Libraries.pf4j)
+    runtimeOnly(Libraries.rxjava)
+}
+
+tasks {
+    jar {
+        enabled = false
+    }
+
+    register<JavaExec>("simulate") {
+        group = "verification"
+        description = "Runs a plugin headless, e.g. --args=\"autowhisperer --ticks=100000\""
+        classpath = project.the<SourceSetContainer>()["main"].runtimeClasspath
+        mainClass.set("net.runelite.client.plugins.testkit.SimulatorMain")
+    }
+}